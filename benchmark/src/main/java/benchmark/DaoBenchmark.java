@@ -0,0 +1,103 @@
+package benchmark;
+
+import db.ConnectionPool;
+import model.dao.impl.DepartmentDaoJDBC;
+import model.dao.impl.SellerDaoJDBC;
+import model.entities.Department;
+import model.entities.DepartmentStats;
+import model.entities.Seller;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+//2g cabem ~1 milhao de vendedores (H2 em memoria + a lista do findall, duas vezes durante a troca de iteracao);
+//para mais linhas passe -jvmArgsAppend "-Xms8g -Xmx8g" (cerca de 1,5 GB por milhao)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class DaoBenchmark {
+
+    @Param({"10000"})
+    public int sellers;
+
+    @Param({"10"})
+    public int departments;
+
+    private ConnectionPool pool;
+    private SellerDaoJDBC sellerDao;
+    private DepartmentDaoJDBC departmentDao;
+    private List<Department> departmentList;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        pool = EmbeddedDatabase.create(4);
+        SyntheticData data = new SyntheticData(42L, 1000);
+        departmentList = data.seedDepartments(pool, departments);
+        data.seedSellers(pool, sellers, departmentList);
+
+        sellerDao = new SellerDaoJDBC(pool);
+        departmentDao = new DepartmentDaoJDBC(pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println(pool.getStatementCacheStats());
+        pool.close();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        SplittableRandom random = new SplittableRandom();
+        SyntheticData data = new SyntheticData(System.nanoTime(), 1);
+    }
+
+    @Benchmark
+    public List<Seller> findall() {
+        return sellerDao.findall();
+    }
+
+    @Benchmark
+    public List<Seller> findByDepartment(ThreadState state) {
+        return sellerDao.findByDepartment(departmentList.get(state.random.nextInt(departmentList.size())));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Seller findById(ThreadState state) {
+        return sellerDao.findById(1 + state.random.nextInt(sellers));
+    }
+
+    @Benchmark
+    public List<DepartmentStats> findDepartmentStats() {
+        return sellerDao.findDepartmentStats();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Department> findAllDepartments() {
+        return departmentDao.findall();
+    }
+
+    //a tabela cresce durante a medicao, o que e aceitavel para o custo por linha inserida
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Seller insert(ThreadState state) {
+        Seller obj = state.data.newSeller(departmentList.get(state.random.nextInt(departmentList.size())));
+        sellerDao.insert(obj);
+        return obj;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Seller update(ThreadState state) {
+        Seller obj = state.data.newSeller(departmentList.get(state.random.nextInt(departmentList.size())));
+        obj.setId(1 + state.random.nextInt(sellers));
+        sellerDao.update(obj);
+        return obj;
+    }
+}
@@ -0,0 +1,65 @@
+package benchmark;
+
+import db.ConnectionPool;
+import db.DbException;
+import db.PooledConnection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//banco H2 em memoria com o mesmo esquema de seller/department
+public class EmbeddedDatabase {
+
+    private static final AtomicInteger counter = new AtomicInteger();
+
+    public static ConnectionPool create(int poolSize) {
+        Properties props = new Properties();
+        props.setProperty("dburl", "jdbc:h2:mem:bench" + counter.incrementAndGet()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        props.setProperty("user", "sa");
+        props.setProperty("password", "");
+        props.setProperty("pool.minSize", "1");
+        props.setProperty("pool.maxSize", String.valueOf(poolSize));
+        props.setProperty("pool.leakDetectionMs", "0");
+
+        ConnectionPool pool = new ConnectionPool(props);
+        createSchema(pool);
+        return pool;
+    }
+
+    private static void createSchema(ConnectionPool pool) {
+        String script;
+        try (InputStream in = EmbeddedDatabase.class.getResourceAsStream("/schema.sql")) {
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new DbException(e.getMessage());
+        }
+
+        try (PooledConnection conn = pool.borrow();
+             Statement st = conn.getConnection().createStatement()) {
+            for (String sql : script.split(";")) {
+                String trimmed = stripComments(sql);
+                if (!trimmed.isEmpty()) {
+                    st.execute(trimmed);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DbException(e.getMessage());
+        }
+    }
+
+    private static String stripComments(String sql) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : sql.split("\n")) {
+            if (!line.trim().startsWith("--")) {
+                sb.append(line).append('\n');
+            }
+        }
+        return sb.toString().trim();
+    }
+}
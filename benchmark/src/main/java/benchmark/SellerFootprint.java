@@ -0,0 +1,57 @@
+package benchmark;
+
+import model.entities.Department;
+import model.entities.Seller;
+import model.services.SellerColumnStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+//mede a memoria retida por vendedor numa ArrayList<Seller> e no SellerColumnStore com os mesmos dados.
+//Uso: java -cp target/benchmarks.jar benchmark.SellerFootprint [vendedores]
+public class SellerFootprint {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<Department> departments = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            departments.add(new Department(i, "Department " + i));
+        }
+
+        long before = usedHeap();
+        List<Seller> list = new ArrayList<>();
+        fill(count, departments, list::add);
+        long listBytes = usedHeap() - before;
+        System.out.println(list.size() + " sellers");
+        list = null;
+
+        before = usedHeap();
+        SellerColumnStore store = new SellerColumnStore();
+        fill(count, departments, store::put);
+        long storeBytes = usedHeap() - before;
+
+        System.out.printf("ArrayList<Seller>   %7.1f bytes/seller%n", (double) listBytes / count);
+        System.out.printf("SellerColumnStore   %7.1f bytes/seller (estimate %.1f)%n",
+                (double) storeBytes / count, store.getBytesPerSeller());
+        System.out.printf("reduction           %7.1f%%%n", 100.0 * (listBytes - storeBytes) / listBytes);
+    }
+
+    //mesma semente nas duas medidas, os dois guardam os mesmos vendedores
+    private static void fill(int count, List<Department> departments, Consumer<Seller> target) {
+        SyntheticData data = new SyntheticData(42L, 1);
+        for (int i = 1; i <= count; i++) {
+            Seller obj = data.newSeller(departments.get(i % departments.size()));
+            obj.setId(i);
+            target.accept(obj);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,73 @@
+package benchmark;
+
+import db.ConnectionPool;
+import model.dao.impl.DepartmentDaoJDBC;
+import model.dao.impl.SellerDaoJDBC;
+import model.entities.Department;
+import model.entities.Seller;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+
+//gera vendedores e departamentos sinteticos em lotes, sem guardar a tabela inteira em memoria
+public class SyntheticData {
+
+    private static final String[] FIRST_NAMES = {
+            "Alex", "Maria", "Bob", "Donald", "Alice", "Carlos", "Ana", "Bruno", "Clara", "Diego",
+            "Elisa", "Fabio", "Gabriela", "Heitor", "Iris", "Joao", "Karen", "Lucas", "Marta", "Nelson"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Silva", "Souza", "Costa", "Santos", "Oliveira", "Pereira", "Lima", "Carvalho", "Ferreira", "Almeida",
+            "Brown", "Green", "Grey", "Blue", "Pink", "Red", "Black", "White", "Gold", "Stone"
+    };
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    private final SplittableRandom random;
+    private final int chunkSize;
+
+    public SyntheticData(long seed, int chunkSize) {
+        this.random = new SplittableRandom(seed);
+        this.chunkSize = chunkSize;
+    }
+
+    public List<Department> seedDepartments(ConnectionPool pool, int count) {
+        List<Department> list = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            list.add(new Department(null, "Department " + i));
+        }
+        DepartmentDaoJDBC dao = new DepartmentDaoJDBC(pool);
+        dao.setBatchSize(chunkSize);
+        dao.insertAll(list);
+        return list;
+    }
+
+    public void seedSellers(ConnectionPool pool, int count, List<Department> departments) {
+        SellerDaoJDBC dao = new SellerDaoJDBC(pool);
+        dao.setBatchSize(chunkSize);
+
+        List<Seller> chunk = new ArrayList<>(chunkSize);
+        for (int i = 0; i < count; i++) {
+            chunk.add(newSeller(departments.get(random.nextInt(departments.size()))));
+            if (chunk.size() == chunkSize) {
+                dao.insertAll(chunk);
+                chunk.clear();
+            }
+        }
+        dao.insertAll(chunk);
+    }
+
+    public Seller newSeller(Department department) {
+        String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String name = first + " " + last + " " + random.nextInt(1_000_000);
+        String email = name.toLowerCase().replace(' ', '.') + "@gmail.com";
+        //nascidos entre 1950 e 2004
+        Date birthDate = new Date((-7305L + random.nextInt(20_088)) * DAY);
+        double baseSalary = 1000.0 + random.nextInt(900_000) / 100.0;
+        return new Seller(null, name, email, birthDate, baseSalary, department);
+    }
+}
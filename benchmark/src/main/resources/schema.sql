@@ -0,0 +1,32 @@
+-- mesmo esquema de sql/000_schema.sql e das migracoes, em sintaxe aceita pelo H2.
+-- IF NOT EXISTS: nos testes o script roda no INIT de cada conexao nova
+CREATE TABLE IF NOT EXISTS department (
+  Id INT NOT NULL AUTO_INCREMENT,
+  Name VARCHAR(60) DEFAULT NULL,
+  PRIMARY KEY (Id)
+);
+
+CREATE TABLE IF NOT EXISTS seller (
+  Id INT NOT NULL AUTO_INCREMENT,
+  Name VARCHAR(60) NOT NULL,
+  Email VARCHAR(100) NOT NULL,
+  BirthDate DATETIME NOT NULL,
+  BaseSalary DOUBLE NOT NULL,
+  DepartmentId INT NOT NULL,
+  PRIMARY KEY (Id),
+  FOREIGN KEY (DepartmentId) REFERENCES department (Id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_seller_name_id ON seller (Name, Id);
+
+CREATE INDEX IF NOT EXISTS idx_seller_email ON seller (Email);
+
+-- os triggers de sql/003_change_log.sql sao so do MySQL, aqui fica apenas a tabela
+CREATE TABLE IF NOT EXISTS change_log (
+  Id BIGINT NOT NULL AUTO_INCREMENT,
+  EntityType VARCHAR(16) NOT NULL,
+  EntityId INT NOT NULL,
+  Kind CHAR(1) NOT NULL,
+  ChangedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (Id)
+);
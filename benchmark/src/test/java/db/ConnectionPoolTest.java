@@ -0,0 +1,175 @@
+package db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionPoolTest {
+
+    private ConnectionPool pool;
+
+    @AfterEach
+    void close() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    private static Properties properties() {
+        Properties props = new Properties();
+        props.setProperty("dburl", "jdbc:h2:mem:pool;DB_CLOSE_DELAY=-1");
+        props.setProperty("user", "sa");
+        props.setProperty("password", "");
+        props.setProperty("pool.maxSize", "2");
+        props.setProperty("pool.borrowTimeoutMs", "200");
+        props.setProperty("pool.leakDetectionMs", "0");
+        return props;
+    }
+
+    @Test
+    void releasedConnectionIsReused() throws SQLException {
+        pool = new ConnectionPool(properties());
+
+        PooledConnection first = pool.borrow();
+        Connection physical = first.getConnection();
+        first.close();
+        PooledConnection second = pool.borrow();
+
+        assertSame(physical, second.getConnection());
+        assertFalse(physical.isClosed());
+        assertEquals(1, pool.getTotalConnections());
+        assertEquals(0, pool.getIdleConnections());
+        second.close();
+        assertEquals(1, pool.getIdleConnections());
+    }
+
+    @Test
+    void releaseRollsBackOpenTransaction() throws SQLException {
+        pool = new ConnectionPool(properties());
+
+        try (PooledConnection conn = pool.borrow()) {
+            conn.getConnection().createStatement().execute("CREATE TABLE IF NOT EXISTS t (id INT)");
+            conn.getConnection().createStatement().execute("DELETE FROM t");
+            conn.getConnection().setAutoCommit(false);
+            conn.getConnection().createStatement().execute("INSERT INTO t VALUES (1)");
+        }
+        try (PooledConnection conn = pool.borrow()) {
+            assertTrue(conn.getConnection().getAutoCommit());
+            ResultSet rs = conn.getConnection().createStatement().executeQuery("SELECT COUNT(*) FROM t");
+            rs.next();
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void borrowTimesOutWhenPoolIsExhausted() {
+        pool = new ConnectionPool(properties());
+
+        PooledConnection a = pool.borrow();
+        PooledConnection b = pool.borrow();
+        DbException e = assertThrows(DbException.class, pool::borrow);
+        assertTrue(e.getMessage().startsWith("Timed out"));
+        assertEquals(2, pool.getTotalConnections());
+
+        a.close();
+        assertSame(a, pool.borrow());
+        b.close();
+    }
+
+    @Test
+    void waitingBorrowGetsReleasedConnection() throws Exception {
+        Properties props = properties();
+        props.setProperty("pool.maxSize", "1");
+        props.setProperty("pool.borrowTimeoutMs", "5000");
+        pool = new ConnectionPool(props);
+
+        PooledConnection held = pool.borrow();
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            held.close();
+        });
+        releaser.start();
+
+        PooledConnection conn = pool.borrow();
+        assertSame(held, conn);
+        releaser.join();
+        conn.close();
+    }
+
+    @Test
+    void driverKeysArePassedWithoutPrefix() throws SQLException {
+        Properties props = properties();
+        props.setProperty("dburl", "jdbc:h2:mem:driverkeys");
+        props.setProperty("jdbc.MODE", "MySQL");
+        props.setProperty("batch.size", "500");
+        pool = new ConnectionPool(props);
+
+        try (PooledConnection conn = pool.borrow()) {
+            ResultSet rs = conn.getConnection().createStatement()
+                    .executeQuery("SELECT SETTING_VALUE FROM INFORMATION_SCHEMA.SETTINGS WHERE SETTING_NAME = 'MODE'");
+            assertTrue(rs.next());
+            assertEquals("MySQL", rs.getString(1));
+        }
+    }
+
+    @Test
+    void reportsLeakedConnection() throws InterruptedException {
+        Properties props = properties();
+        props.setProperty("pool.leakDetectionMs", "100");
+        CountDownLatch reported = new CountDownLatch(1);
+        LogRecord[] leak = new LogRecord[1];
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                if (record.getLevel() == Level.WARNING && record.getThrown() != null) {
+                    leak[0] = record;
+                    reported.countDown();
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Logger logger = Logger.getLogger(ConnectionPool.class.getName());
+        logger.addHandler(handler);
+        //o aviso e esperado, nao precisa aparecer na saida do build
+        logger.setUseParentHandlers(false);
+        try {
+            pool = new ConnectionPool(props);
+            PooledConnection conn = pool.borrow();
+
+            //a verificacao roda a cada segundo no minimo
+            assertTrue(reported.await(5, TimeUnit.SECONDS), "leak not reported");
+            assertEquals("Connection borrowed here", leak[0].getThrown().getMessage());
+            conn.close();
+        } finally {
+            logger.setUseParentHandlers(true);
+            logger.removeHandler(handler);
+        }
+    }
+}
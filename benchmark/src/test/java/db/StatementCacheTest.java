@@ -0,0 +1,93 @@
+package db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatementCacheTest {
+
+    private static final String SQL_A = "SELECT 1";
+    private static final String SQL_B = "SELECT 2";
+    private static final String SQL_C = "SELECT 3";
+
+    private Connection connection;
+    private StatementCacheStats stats;
+    private StatementCache cache;
+
+    @BeforeEach
+    void open() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:");
+        stats = new StatementCacheStats();
+        cache = new StatementCache(connection, 2, stats);
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        cache.closeAll();
+        connection.close();
+    }
+
+    @Test
+    void reusesCachedStatement() throws SQLException {
+        PreparedStatement first = cache.prepare(SQL_A, Statement.NO_GENERATED_KEYS);
+        PreparedStatement second = cache.prepare(SQL_A, Statement.NO_GENERATED_KEYS);
+
+        assertSame(first, second);
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+    }
+
+    @Test
+    void generatedKeysFlagIsPartOfTheKey() throws SQLException {
+        PreparedStatement plain = cache.prepare(SQL_A, Statement.NO_GENERATED_KEYS);
+        PreparedStatement withKeys = cache.prepare(SQL_A, Statement.RETURN_GENERATED_KEYS);
+
+        assertNotSame(plain, withKeys);
+        assertEquals(2, stats.getMisses());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() throws SQLException {
+        PreparedStatement a = cache.prepare(SQL_A, Statement.NO_GENERATED_KEYS);
+        PreparedStatement b = cache.prepare(SQL_B, Statement.NO_GENERATED_KEYS);
+        //usar A de novo deixa B como o menos usado
+        cache.prepare(SQL_A, Statement.NO_GENERATED_KEYS);
+        cache.prepare(SQL_C, Statement.NO_GENERATED_KEYS);
+
+        assertEquals(1, stats.getEvictions());
+        assertTrue(b.isClosed());
+        assertFalse(a.isClosed());
+        assertSame(a, cache.prepare(SQL_A, Statement.NO_GENERATED_KEYS));
+
+        //B voltou como statement novo
+        PreparedStatement b2 = cache.prepare(SQL_B, Statement.NO_GENERATED_KEYS);
+        assertNotSame(b, b2);
+        assertFalse(b2.isClosed());
+        assertEquals(2, stats.getEvictions());
+        assertEquals(4, stats.getMisses());
+        assertEquals(2, stats.getHits());
+    }
+
+    @Test
+    void closeAllClosesEveryStatement() throws SQLException {
+        PreparedStatement a = cache.prepare(SQL_A, Statement.NO_GENERATED_KEYS);
+        PreparedStatement b = cache.prepare(SQL_B, Statement.NO_GENERATED_KEYS);
+
+        cache.closeAll();
+
+        assertTrue(a.isClosed());
+        assertTrue(b.isClosed());
+    }
+}
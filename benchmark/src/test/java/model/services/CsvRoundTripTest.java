@@ -0,0 +1,99 @@
+package model.services;
+
+import model.entities.Department;
+import model.entities.Seller;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//exporta para CSV e importa de volta contra o H2 em memoria de src/test/resources/db.properties
+class CsvRoundTripTest {
+
+    @TempDir
+    Path dir;
+
+    private final DepartmentService departmentService = new DepartmentService();
+    private final SellerService sellerService = new SellerService();
+    private final SellerExportService exportService = new SellerExportService();
+    private final SellerImportService importService = new SellerImportService();
+
+    private static List<Seller> sellersOf(Department dep) {
+        List<Seller> list = new ArrayList<>();
+        new SellerService().forEachByDepartment(dep, list::add);
+        list.sort(Comparator.comparing(Seller::getId));
+        return list;
+    }
+
+    @Test
+    void exportedFileImportsBackUnchanged() throws IOException {
+        Department dep = new Department(null, "Round Trip");
+        departmentService.saveOrUpdate(dep);
+        List<Seller> sellers = Arrays.asList(
+                new Seller(null, "Bob Brown", "bob@gmail.com", Date.valueOf("1998-04-21"), 1000.0, dep),
+                new Seller(null, "Ana \"Aninha\" Ção, Jr.", "ana@gmail.com", Date.valueOf("1985-12-31"), 1234.565, dep),
+                new Seller(null, "Multi\nLine", "multi@gmail.com", Date.valueOf("2000-02-29"), 1.0E7, dep),
+                new Seller(null, "Point Three", "p3@gmail.com", Date.valueOf("1970-01-01"), 0.1 + 0.2, dep));
+        sellerService.saveOrUpdate(sellers);
+        List<Seller> before = sellersOf(dep);
+
+        Path first = dir.resolve("sellers.csv");
+        long exported = exportService.export(first, SellerExportService.Format.CSV, dep, new AtomicBoolean(), p -> { });
+        assertEquals(sellers.size(), exported);
+
+        SellerImportService.Progress progress = importService.importCsv(first, new AtomicBoolean(), p -> { });
+        assertEquals(sellers.size(), progress.getImported());
+        assertEquals(0, progress.getRejected());
+        assertFalse(progress.isCancelled());
+
+        //linhas com Id atualizam o mesmo vendedor, sem duplicar
+        List<Seller> after = sellersOf(dep);
+        assertEquals(before.size(), after.size());
+        for (int i = 0; i < before.size(); i++) {
+            Seller expected = before.get(i);
+            Seller actual = after.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getEmail(), actual.getEmail());
+            assertEquals(expected.getBirthDate(), actual.getBirthDate());
+            assertEquals(expected.getBaseSalary(), actual.getBaseSalary());
+            assertEquals(expected.getDepartment().getId(), actual.getDepartment().getId());
+        }
+
+        Path second = dir.resolve("sellers-again.csv");
+        exportService.export(second, SellerExportService.Format.CSV, dep, new AtomicBoolean(), p -> { });
+        assertEquals(Files.readString(first, StandardCharsets.UTF_8), Files.readString(second, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void invalidRowsAreRejected() throws IOException {
+        Department dep = new Department(null, "Rejects");
+        departmentService.saveOrUpdate(dep);
+        Path file = dir.resolve("rejects.csv");
+        Files.writeString(file, "Name,Email,BirthDate,BaseSalary,Department\n"
+                + "Good One,good@gmail.com,21/04/1998,1000.0,Rejects\n"
+                + "Bad Date,bad@gmail.com,1998-13-45,1000.0,Rejects\n"
+                + "Bad Department,dep@gmail.com,21/04/1998,1000.0,Nowhere\n", StandardCharsets.UTF_8);
+
+        SellerImportService.Progress progress = importService.importCsv(file, new AtomicBoolean(), p -> { });
+
+        assertEquals(1, progress.getImported());
+        assertEquals(2, progress.getRejected());
+        assertEquals(1, sellersOf(dep).size());
+        //cabecalho + duas linhas rejeitadas
+        assertEquals(3, Files.readAllLines(progress.getReportFile(), StandardCharsets.UTF_8).size());
+    }
+}
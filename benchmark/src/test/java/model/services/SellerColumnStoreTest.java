@@ -0,0 +1,139 @@
+package model.services;
+
+import model.entities.Department;
+import model.entities.Seller;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SellerColumnStoreTest {
+
+    private static final Department BOOKS = new Department(1, "Books");
+    private static final Department MUSIC = new Department(2, "Music");
+
+    private static Date date(int year, int month, int day) {
+        return Date.from(LocalDate.of(year, month, day).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static void assertSameSeller(Seller expected, Seller actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getEmail(), actual.getEmail());
+        assertEquals(expected.getBirthDate(), actual.getBirthDate());
+        assertEquals(expected.getBaseSalary(), actual.getBaseSalary());
+        assertSame(expected.getDepartment(), actual.getDepartment());
+    }
+
+    @Test
+    void putAndReadBack() {
+        SellerColumnStore store = new SellerColumnStore(16);
+        Seller bob = new Seller(10, "Bob Brown", "bob@gmail.com", date(1998, 4, 21), 1000.0, BOOKS);
+        Seller ana = new Seller(20, "Ana Ção", null, null, null, null);
+
+        int bobRow = store.put(bob);
+        int anaRow = store.put(ana);
+
+        assertEquals(0, bobRow);
+        assertEquals(1, anaRow);
+        assertEquals(bobRow, store.rowOf(10));
+        assertEquals(-1, store.rowOf(30));
+        assertSameSeller(bob, store.toSeller(bobRow));
+        assertSameSeller(ana, store.toSeller(anaRow));
+        assertTrue(store.toSeller(bobRow).isFrozen());
+        assertEquals(LocalDate.of(1998, 4, 21), store.cursor().moveTo(bobRow).getBirthDate());
+    }
+
+    @Test
+    void putSameIdUpdatesInPlace() {
+        SellerColumnStore store = new SellerColumnStore(16);
+        store.put(new Seller(10, "Bob", "bob@gmail.com", null, 1000.0, BOOKS));
+
+        Seller changed = new Seller(10, "Robert", "robert@gmail.com", date(1990, 1, 1), 1500.5, MUSIC);
+        assertEquals(0, store.put(changed));
+
+        assertEquals(1, store.size());
+        assertSameSeller(changed, store.toSeller(0));
+    }
+
+    @Test
+    void putWithoutIdFails() {
+        SellerColumnStore store = new SellerColumnStore();
+        assertThrows(IllegalArgumentException.class, () -> store.put(new Seller(null, "X", null, null, null, null)));
+    }
+
+    @Test
+    void removeKeepsRowUntilPutAgain() {
+        SellerColumnStore store = new SellerColumnStore(16);
+        store.put(new Seller(10, "Bob", "bob@gmail.com", null, 1000.0, BOOKS));
+        store.put(new Seller(20, "Ana", "ana@gmail.com", null, 2000.0, BOOKS));
+
+        assertTrue(store.remove(10));
+        assertFalse(store.remove(10));
+        assertFalse(store.remove(99));
+        assertEquals(2, store.size());
+        assertEquals(1, store.liveCount());
+        assertTrue(store.cursor().moveTo(0).isRemoved());
+        assertFalse(store.cursor().moveTo(1).isRemoved());
+        assertNull(store.cursor().moveTo(0).getName());
+
+        Seller back = new Seller(10, "Bob", "bob@yahoo.com", null, 1100.0, MUSIC);
+        assertEquals(0, store.put(back));
+        assertEquals(2, store.liveCount());
+        assertFalse(store.cursor().moveTo(0).isRemoved());
+        assertSameSeller(back, store.toSeller(0));
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        SellerColumnStore store = new SellerColumnStore(16);
+        for (int id = 1; id <= 5000; id++) {
+            store.put(new Seller(id, "Seller " + id, "s" + id + "@gmail.com", null, (double) id, id % 2 == 0 ? BOOKS : MUSIC));
+        }
+
+        assertEquals(5000, store.liveCount());
+        for (int id = 1; id <= 5000; id++) {
+            Seller obj = store.toSeller(store.rowOf(id));
+            assertEquals("Seller " + id, obj.getName());
+            assertEquals(id % 2 == 0 ? BOOKS : MUSIC, obj.getDepartment());
+        }
+    }
+
+    @Test
+    void rewritesAreCompacted() {
+        SellerColumnStore store = new SellerColumnStore(1024);
+        for (int id = 1; id <= 1000; id++) {
+            store.put(new Seller(id, "Seller " + id, "s" + id + "@gmail.com", null, 0.0, BOOKS));
+        }
+        double initial = store.getBytesPerSeller();
+
+        //cada volta deixa os textos antigos como lixo; sem compactar o byte[] cresceria a cada volta
+        for (int round = 0; round < 50; round++) {
+            for (int id = 1; id <= 1000; id++) {
+                store.put(new Seller(id, "Seller " + id + " v" + round, "s" + id + "@gmail.com", null, (double) round, BOOKS));
+            }
+        }
+        for (int id = 1; id <= 1000; id += 2) {
+            store.remove(id);
+        }
+
+        assertEquals(1000, store.size());
+        assertEquals(500, store.liveCount());
+        assertTrue(store.getBytesPerSeller() < initial * 4,
+                "bytes per seller " + store.getBytesPerSeller() + " vs " + initial);
+        for (int id = 2; id <= 1000; id += 2) {
+            Seller obj = store.toSeller(store.rowOf(id));
+            assertEquals("Seller " + id + " v49", obj.getName());
+            assertEquals("s" + id + "@gmail.com", obj.getEmail());
+            assertEquals(49.0, obj.getBaseSalary());
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package model.services;
+
+import model.entities.Department;
+import model.entities.DepartmentRegistry;
+import model.entities.Seller;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SellerSnapshotTest {
+
+    //ids fora dos usados pelos outros testes: o DepartmentRegistry e global
+    private static final Department TOOLS = new Department(9001, "Tools");
+    private static final Department GARDEN = new Department(9002, "Jardim & Ção");
+
+    @TempDir
+    Path dir;
+
+    private static SellerSnapshot sample() {
+        List<Seller> sellers = Arrays.asList(
+                new Seller(1, "Bob Brown", "bob@gmail.com", new Date(893127600000L), 1234.56, TOOLS),
+                new Seller(2, "Ana \"Quote\", Comma", null, null, null, null),
+                new Seller(3, "", "", new Date(-86400000L), 0.0, GARDEN));
+        return new SellerSnapshot(1700000000000L, Arrays.asList(TOOLS, GARDEN), sellers);
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+        SellerSnapshot written = sample();
+        written.write(file);
+
+        SellerSnapshot read = SellerSnapshot.read(file);
+
+        assertNotNull(read);
+        assertEquals(written.getCreatedAt(), read.getCreatedAt());
+        assertEquals(written.getDepartments().size(), read.getDepartments().size());
+        for (int i = 0; i < written.getDepartments().size(); i++) {
+            assertEquals(written.getDepartments().get(i).getId(), read.getDepartments().get(i).getId());
+            assertEquals(written.getDepartments().get(i).getName(), read.getDepartments().get(i).getName());
+        }
+        assertEquals(written.getSellers().size(), read.getSellers().size());
+        for (int i = 0; i < written.getSellers().size(); i++) {
+            Seller expected = written.getSellers().get(i);
+            Seller actual = read.getSellers().get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getEmail(), actual.getEmail());
+            assertEquals(expected.getBirthDate(), actual.getBirthDate());
+            assertEquals(expected.getBaseSalary(), actual.getBaseSalary());
+            if (expected.getDepartment() == null) {
+                assertNull(actual.getDepartment());
+            } else {
+                assertEquals(expected.getDepartment().getName(), actual.getDepartment().getName());
+            }
+            assertTrue(actual.isFrozen());
+        }
+    }
+
+    @Test
+    void departmentsAreInterned() throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+        sample().write(file);
+
+        SellerSnapshot read = SellerSnapshot.read(file);
+
+        assertNotNull(read);
+        Department tools = read.getSellers().get(0).getDepartment();
+        assertSame(DepartmentRegistry.get(9001), tools);
+        assertSame(read.getDepartments().get(0), tools);
+    }
+
+    @Test
+    void emptySnapshot() throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+        new SellerSnapshot(1L, Collections.emptyList(), Collections.emptyList()).write(file);
+
+        SellerSnapshot read = SellerSnapshot.read(file);
+
+        assertNotNull(read);
+        assertTrue(read.getSellers().isEmpty());
+    }
+
+    @Test
+    void missingFileReadsAsNull() throws IOException {
+        assertNull(SellerSnapshot.read(dir.resolve("missing.bin")));
+    }
+
+    @Test
+    void truncatedFileReadsAsNull() throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+        sample().write(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        assertNull(SellerSnapshot.read(file));
+    }
+
+    @Test
+    void corruptPayloadReadsAsNull() throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+        sample().write(file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x55;
+        Files.write(file, bytes);
+
+        assertNull(SellerSnapshot.read(file));
+    }
+}
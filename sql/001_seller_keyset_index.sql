@@ -0,0 +1,2 @@
+-- indice para a paginacao por chave da lista de vendedores (ORDER BY Name, Id)
+CREATE INDEX idx_seller_name_id ON seller (Name, Id);
@@ -0,0 +1,2 @@
+-- indice para a busca por prefixo do email na lista de vendedores
+CREATE INDEX idx_seller_email ON seller (Email);
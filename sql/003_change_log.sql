@@ -0,0 +1,46 @@
+-- registro de alteracoes para a sincronizacao incremental entre clientes
+-- cada insert/update/delete em seller e department grava uma linha; os clientes leem so o que veio depois
+-- do ultimo Id que ja processaram. Linhas antigas podem ser apagadas, por exemplo:
+--   DELETE FROM change_log WHERE ChangedAt < NOW() - INTERVAL 1 DAY;
+CREATE TABLE change_log (
+  Id BIGINT NOT NULL AUTO_INCREMENT,
+  EntityType VARCHAR(16) NOT NULL,
+  EntityId INT NOT NULL,
+  Kind CHAR(1) NOT NULL,
+  ChangedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (Id)
+);
+
+DELIMITER //
+
+CREATE TRIGGER seller_after_insert AFTER INSERT ON seller FOR EACH ROW
+BEGIN
+  INSERT INTO change_log (EntityType, EntityId, Kind) VALUES ('seller', NEW.Id, 'I');
+END//
+
+CREATE TRIGGER seller_after_update AFTER UPDATE ON seller FOR EACH ROW
+BEGIN
+  INSERT INTO change_log (EntityType, EntityId, Kind) VALUES ('seller', NEW.Id, 'U');
+END//
+
+CREATE TRIGGER seller_after_delete AFTER DELETE ON seller FOR EACH ROW
+BEGIN
+  INSERT INTO change_log (EntityType, EntityId, Kind) VALUES ('seller', OLD.Id, 'D');
+END//
+
+CREATE TRIGGER department_after_insert AFTER INSERT ON department FOR EACH ROW
+BEGIN
+  INSERT INTO change_log (EntityType, EntityId, Kind) VALUES ('department', NEW.Id, 'I');
+END//
+
+CREATE TRIGGER department_after_update AFTER UPDATE ON department FOR EACH ROW
+BEGIN
+  INSERT INTO change_log (EntityType, EntityId, Kind) VALUES ('department', NEW.Id, 'U');
+END//
+
+CREATE TRIGGER department_after_delete AFTER DELETE ON department FOR EACH ROW
+BEGIN
+  INSERT INTO change_log (EntityType, EntityId, Kind) VALUES ('department', OLD.Id, 'D');
+END//
+
+DELIMITER ;
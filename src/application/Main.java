@@ -13,6 +13,8 @@ public class Main extends Application {
 
     private static Scene mainScene;
 
+    private StartupPipeline startupPipeline;
+
 
     @Override
     public void start(Stage primaryStage) {
@@ -27,16 +29,28 @@ public class Main extends Application {
             primaryStage.setScene(mainScene);
             primaryStage.setTitle("Sample JavaFX application");
             primaryStage.show();
+
+            startupPipeline = new StartupPipeline();
+            startupPipeline.start();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    //grava o snapshot local para a proxima partida
+    @Override
+    public void stop() {
+        if (startupPipeline != null) {
+            startupPipeline.stop();
+        }
+    }
+
     public static Scene getMainScene() {
         return mainScene;
     }
 
     public static void main(String[] args) {
+        StartupPipeline.markLaunch();
         launch(args);
     }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package application;
+
+import db.DB;
+import gui.MainViewController;
+import gui.listeners.ChangeEvent;
+import gui.listeners.EventBus;
+import gui.util.ViewRegistry;
+import model.services.DepartmentService;
+import model.services.DepartmentStatsService;
+import model.services.SellerService;
+import model.services.ServiceExecutor;
+import model.services.SnapshotService;
+import model.services.SyncService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//prepara banco, caches e telas em paralelo enquanto a janela principal aparece, e mostra quanto cada fase levou
+public class StartupPipeline {
+
+    private static final Logger LOG = Logger.getLogger(StartupPipeline.class.getName());
+
+    //instante da partida, gravado pelo main antes de subir o JavaFX
+    private static volatile long launchedAt;
+
+    private static final AtomicBoolean firstSellerList = new AtomicBoolean();
+
+    private final List<String> report = new ArrayList<>();
+
+    private final SyncService syncService = new SyncService();
+
+    private final SnapshotService snapshotService = new SnapshotService();
+
+    public static void markLaunch() {
+        launchedAt = System.nanoTime();
+    }
+
+    //chamado quando a primeira pagina de vendedores aparece na tela
+    public static void markFirstSellerList() {
+        if (firstSellerList.compareAndSet(false, true)) {
+            LOG.info("Startup: first seller list interactive after " + elapsedMillis(launchedAt) + " ms");
+        }
+    }
+
+    public CompletableFuture<Void> start() {
+        long startedAt = System.nanoTime();
+
+        CompletableFuture<Void> properties = phase("properties", DB::getProperties);
+        //le o snapshot local sem esperar o banco, a lista de vendedores pode abrir com ele
+        CompletableFuture<Void> snapshot = after(properties, "snapshot", snapshotService::load);
+        //abre a primeira conexao fisica, as fases seguintes abrem as delas em paralelo. Sem banco elas sao puladas
+        CompletableFuture<Void> pool = after(properties, "pool", () -> DB.releaseConnection(DB.getConnection()));
+        //a gravacao periodica do snapshot le do banco
+        CompletableFuture<Void> snapshotSave = after(pool, "snapshotSave", snapshotService::start);
+        //prepara a consulta da primeira pagina de vendedores na conexao
+        CompletableFuture<Void> statements = after(pool, "statements",
+                () -> new SellerService().findPage(null, null, 1));
+        CompletableFuture<Void> departments = after(pool, "departments", () -> new DepartmentService().findAll());
+        CompletableFuture<Void> stats = after(pool, "stats", () -> new DepartmentStatsService().findAll());
+        //alteracoes feitas por outros clientes chegam as telas pelo EventBus
+        CompletableFuture<Void> sync = after(pool, "sync", () -> syncService.start(StartupPipeline::publishChanges));
+        CompletableFuture<Void> views = timed("views", System.nanoTime(), ViewRegistry.preload(MainViewController.PRELOADED_VIEWS));
+
+        return CompletableFuture.allOf(snapshot, snapshotSave, statements, departments, stats, sync, views)
+                .handle((result, error) -> {
+                    printReport(elapsedMillis(startedAt));
+                    return null;
+                });
+    }
+
+    //chamado no fechamento da aplicacao
+    public void stop() {
+        syncService.stop();
+        snapshotService.stop();
+    }
+
+    private static void publishChanges(List<SyncService.Change> changes) {
+        for (SyncService.Change change : changes) {
+            if (change.isDeleted()) {
+                EventBus.publish(ChangeEvent.deleted(change.getEntityType(), change.getId()));
+            } else {
+                EventBus.publish(ChangeEvent.saved(change.getEntityType(), change.getId(), change.getEntity(), change.isCreated()));
+            }
+        }
+    }
+
+    private CompletableFuture<Void> phase(String name, Runnable task) {
+        long startedAt = System.nanoTime();
+        return timed(name, startedAt, ServiceExecutor.run(task));
+    }
+
+    //fase que so roda se a anterior deu certo; senao aparece como pulada e a falha segue para as dependentes dela
+    private CompletableFuture<Void> after(CompletableFuture<Void> dependency, String name, Runnable task) {
+        return dependency.handle((result, error) -> error)
+                .thenCompose(error -> {
+                    if (error == null) {
+                        return phase(name, task);
+                    }
+                    addLine(String.format("  %-12s    skipped", name));
+                    return CompletableFuture.failedFuture(error);
+                });
+    }
+
+    //a falha continua no future retornado, para as fases dependentes nao rodarem
+    private CompletableFuture<Void> timed(String name, long startedAt, CompletableFuture<Void> future) {
+        return future.whenComplete((result, error) -> {
+            String line = String.format("  %-12s %5d ms", name, elapsedMillis(startedAt));
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                line += "  failed: " + cause;
+                LOG.log(Level.WARNING, "Startup phase " + name + " failed", cause);
+            }
+            addLine(line);
+        });
+    }
+
+    private void addLine(String line) {
+        synchronized (report) {
+            report.add(line);
+        }
+    }
+
+    private void printReport(long totalMillis) {
+        StringBuilder sb = new StringBuilder("Startup (phases in order of completion):\n");
+        synchronized (report) {
+            for (String line : report) {
+                sb.append(line).append('\n');
+            }
+        }
+        sb.append(String.format("  %-12s %5d ms (%d ms after launch)", "total", totalMillis, elapsedMillis(launchedAt)));
+        LOG.info(sb.toString());
+    }
+
+    private static long elapsedMillis(long since) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - since);
+    }
+}
@@ -0,0 +1,333 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class ConnectionPool {
+
+    private static final Logger LOG = Logger.getLogger(ConnectionPool.class.getName());
+
+    private static final String DRIVER_PREFIX = "jdbc.";
+
+    private final String url;
+    private final Properties driverProps;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long borrowTimeoutMillis;
+    private final long leakDetectionMillis;
+    private final boolean validateOnBorrow;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    private final StatementCacheStats statementCacheStats = new StatementCacheStats();
+
+    //conexoes livres, a mais recente fica na frente
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> borrowed = new HashSet<>();
+    private int total;
+    private boolean closed;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private final ScheduledExecutorService housekeeper;
+
+    public ConnectionPool(Properties props) {
+        this.url = props.getProperty("dburl");
+        //o driver so recebe user, password e as chaves jdbc.* (sem o prefixo); o resto do arquivo e da aplicacao
+        this.driverProps = new Properties();
+        for (String key : props.stringPropertyNames()) {
+            if (key.equals("user") || key.equals("password")) {
+                driverProps.setProperty(key, props.getProperty(key));
+            } else if (key.startsWith(DRIVER_PREFIX)) {
+                driverProps.setProperty(key.substring(DRIVER_PREFIX.length()), props.getProperty(key));
+            }
+        }
+
+        this.minSize = intProperty(props, "pool.minSize", 1);
+        this.maxSize = Math.max(minSize, intProperty(props, "pool.maxSize", 8));
+        this.idleTimeoutMillis = longProperty(props, "pool.idleTimeoutMs", 300_000L);
+        this.borrowTimeoutMillis = longProperty(props, "pool.borrowTimeoutMs", 30_000L);
+        this.leakDetectionMillis = longProperty(props, "pool.leakDetectionMs", 60_000L);
+        this.validateOnBorrow = Boolean.parseBoolean(props.getProperty("pool.validateOnBorrow", "true"));
+        this.validationTimeoutSeconds = intProperty(props, "pool.validationTimeoutSec", 2);
+        this.statementCacheSize = intProperty(props, "pool.statementCacheSize", 32);
+
+        long period = Math.max(1_000L, Math.min(idleTimeoutMillis,
+                leakDetectionMillis > 0 ? leakDetectionMillis : idleTimeoutMillis) / 2);
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public PooledConnection borrow() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+        while (true) {
+            PooledConnection candidate = null;
+            boolean create = false;
+
+            lock.lock();
+            try {
+                while (candidate == null && !create) {
+                    if (closed) {
+                        throw new DbException("Connection pool is closed");
+                    }
+                    candidate = idle.pollFirst();
+                    if (candidate == null) {
+                        if (total < maxSize) {
+                            total++;
+                            create = true;
+                        } else {
+                            long remaining = deadline - System.nanoTime();
+                            if (remaining <= 0) {
+                                throw new DbException("Timed out waiting for a database connection");
+                            }
+                            available.awaitNanos(remaining);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DbException("Interrupted while waiting for a database connection");
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                candidate = openConnection();
+            } else if (validateOnBorrow && !candidate.isValid(validationTimeoutSeconds)) {
+                destroy(candidate);
+                continue;
+            }
+
+            candidate.markBorrowed(leakDetectionMillis > 0 ? new Throwable("Connection borrowed here") : null);
+            lock.lock();
+            try {
+                borrowed.add(candidate);
+            } finally {
+                lock.unlock();
+            }
+            return candidate;
+        }
+    }
+
+    void release(PooledConnection conn) {
+        boolean keep;
+        lock.lock();
+        try {
+            if (!borrowed.remove(conn)) {
+                return;
+            }
+            keep = !closed;
+        } finally {
+            lock.unlock();
+        }
+
+        if (keep) {
+            keep = conn.reset();
+        }
+        if (!keep) {
+            destroy(conn);
+            return;
+        }
+
+        conn.markReturned();
+        lock.lock();
+        try {
+            idle.addFirst(conn);
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getTotalConnections() {
+        lock.lock();
+        try {
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getIdleConnections() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //conexao fisica fora do pool, para leituras longas em streaming que nao devem ocupar uma conexao do pool
+    //nem cair na deteccao de vazamento; quem abre fecha
+    public Connection openDedicated() {
+        try {
+            return DriverManager.getConnection(url, driverProps);
+        } catch (SQLException e) {
+            throw new DbException(e.getMessage());
+        }
+    }
+
+    public StatementCacheStats getStatementCacheStats() {
+        return statementCacheStats;
+    }
+
+    public void close() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            total -= idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        housekeeper.shutdownNow();
+        for (PooledConnection conn : toClose) {
+            conn.closePhysical();
+        }
+    }
+
+    private PooledConnection openConnection() {
+        try {
+            Connection physical = DriverManager.getConnection(url, driverProps);
+            return new PooledConnection(this, physical, statementCacheSize, statementCacheStats);
+        } catch (SQLException e) {
+            lock.lock();
+            try {
+                total--;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw new DbException(e.getMessage());
+        }
+    }
+
+    private void destroy(PooledConnection conn) {
+        conn.closePhysical();
+        lock.lock();
+        try {
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void housekeep() {
+        try {
+            evictIdle();
+            fillToMinimum();
+            detectLeaks();
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Connection pool housekeeping failed", e);
+        }
+    }
+
+    private void evictIdle() {
+        List<PooledConnection> evicted = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            //as mais antigas ficam no fim da fila
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && total - evicted.size() > minSize) {
+                PooledConnection conn = it.next();
+                if (now - conn.getLastUsedAt() >= idleTimeoutMillis) {
+                    it.remove();
+                    evicted.add(conn);
+                }
+            }
+            total -= evicted.size();
+        } finally {
+            lock.unlock();
+        }
+        for (PooledConnection conn : evicted) {
+            conn.closePhysical();
+        }
+    }
+
+    private void fillToMinimum() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || total >= minSize) {
+                    return;
+                }
+                total++;
+            } finally {
+                lock.unlock();
+            }
+            PooledConnection conn = openConnection();
+            conn.markReturned();
+            lock.lock();
+            try {
+                idle.addLast(conn);
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        if (leakDetectionMillis <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<PooledConnection> suspects = new ArrayList<>();
+        lock.lock();
+        try {
+            for (PooledConnection conn : borrowed) {
+                if (now - conn.getBorrowedAt() >= leakDetectionMillis && conn.flagLeak()) {
+                    suspects.add(conn);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (PooledConnection conn : suspects) {
+            //a pilha de quem pegou a conexao vai junto, quando foi guardada
+            LOG.log(Level.WARNING, "Possible connection leak: connection held for more than "
+                    + leakDetectionMillis + " ms", conn.getBorrowSite());
+        }
+    }
+
+    private static int intProperty(Properties props, String key, int defaultValue) {
+        String value = props.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static long longProperty(Properties props, String key, long defaultValue) {
+        String value = props.getProperty(key);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+}
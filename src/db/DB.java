@@ -7,36 +7,85 @@ import java.util.Properties;
 
 public class DB {
 
-    //conectar ao banco de dados
-    private static Connection conn = null;
+    //pool de conexoes com o banco de dados
+    private static ConnectionPool pool = null;
 
-    public static Connection getConnection() {
-        if (conn == null) {
+    private static Properties properties = null;
+
+    public static synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            pool = new ConnectionPool(getProperties());
+        }
+        return pool;
+    }
+
+    public static synchronized Properties getProperties() {
+        if (properties == null) {
+            properties = loadProperties();
+        }
+        return properties;
+    }
+
+    public static int getIntProperty(String key, int defaultValue) {
+        String value = getProperties().getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    //pegar uma conexao do pool, deve ser devolvida com releaseConnection
+    public static PooledConnection getConnection() {
+        return getPool().borrow();
+    }
+
+    public static void releaseConnection(PooledConnection conn) {
+        if (conn != null) {
+            conn.close();
+        }
+    }
+
+
+    //desfaz a transacao aberta na conexao
+    public static void rollback(PooledConnection conn) {
+        if (conn != null) {
             try {
-                Properties props = loadProperties();
-                String url = props.getProperty("dburl");
-                conn = DriverManager.getConnection(url, props);
+                conn.getConnection().rollback();
             } catch (SQLException e) {
-                throw new DbException(e.getMessage());
+                e.printStackTrace();
             }
         }
-
-        return conn;
     }
 
-
-    //fechar a cooneexao com o banco
-    public static void closeConneection() {
+    //volta a conexao para autocommit antes de devolver ao pool
+    public static void restoreAutoCommit(PooledConnection conn) {
         if (conn != null) {
             try {
-                conn.close();
-            }catch (SQLException e){
-                throw new DbException(e.getMessage());
+                conn.getConnection().setAutoCommit(true);
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    //descarta o lote pendente, o statement continua no cache da conexao
+    public static void clearBatch(Statement st) {
+        if (st != null) {
+            try {
+                st.clearBatch();
+            } catch (SQLException e) {
+                e.printStackTrace();
             }
         }
     }
 
 
+    //fechar as conexoes com o banco
+    public static synchronized void closeConneection() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+
 
     //pegar as proprieedadees do banco
     private static Properties loadProperties() {
@@ -60,6 +109,16 @@ public class DB {
         }
     }
 
+    public static void closeConnection(Connection conn){
+        if(conn != null){
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
     public static void closeResulSet(ResultSet rs){
         if(rs != null){
             try {
@@ -0,0 +1,85 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//cache de PreparedStatement de uma conexao, os menos usados saem primeiro
+class StatementCache {
+
+    private final Connection connection;
+    private final int maxSize;
+    private final StatementCacheStats stats;
+
+    private final LinkedHashMap<Key, PreparedStatement> statements;
+
+    StatementCache(Connection connection, int maxSize, StatementCacheStats stats) {
+        this.connection = connection;
+        this.maxSize = Math.max(1, maxSize);
+        this.stats = stats;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys);
+        PreparedStatement st = statements.get(key);
+        if (st != null && !st.isClosed()) {
+            stats.recordHit();
+            //um lote que falhou antes de executar nao pode ir junto com o proximo uso
+            st.clearParameters();
+            st.clearBatch();
+            return st;
+        }
+
+        stats.recordMiss();
+        st = connection.prepareStatement(sql, autoGeneratedKeys);
+        statements.put(key, st);
+        if (statements.size() > maxSize) {
+            Iterator<Map.Entry<Key, PreparedStatement>> it = statements.entrySet().iterator();
+            PreparedStatement eldest = it.next().getValue();
+            it.remove();
+            stats.recordEviction();
+            DB.closeStatement(eldest);
+        }
+        return st;
+    }
+
+    void closeAll() {
+        for (PreparedStatement st : statements.values()) {
+            try {
+                st.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        statements.clear();
+    }
+
+    private static final class Key {
+        private final String sql;
+        private final int autoGeneratedKeys;
+        private final int hash;
+
+        Key(String sql, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+            this.hash = 31 * sql.hashCode() + autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            return autoGeneratedKeys == that.autoGeneratedKeys && sql.equals(that.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -1,17 +1,19 @@
 package gui;
 
-import db.DbException;
-import gui.listeners.DataChangeListener;
+import gui.listeners.ChangeEvent;
+import gui.listeners.EventBus;
 import gui.util.Alerts;
 import gui.util.Constraints;
 import gui.util.Utils;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.scene.Cursor;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
+import javafx.stage.Stage;
 import model.entities.Department;
 import model.exceptions.ValidationException;
 import model.services.DepartmentService;
@@ -25,8 +27,6 @@ public class DepartmentFormController implements Initializable {
 
     private DepartmentService service;
 
-    private List<DataChangeListener> dataChangeListeners = new ArrayList<>();
-
 
     @FXML
     private TextField txtId;
@@ -51,8 +51,10 @@ public class DepartmentFormController implements Initializable {
         this.service = service;
     }
 
-    public void subscribeDtaChangeListner(DataChangeListener listener){
-        dataChangeListeners.add(listener);
+    //o dialogo e reaproveitado, limpa o que ficou da ultima vez
+    public void reset(){
+        labelErrorName.setText("");
+        btSave.setDisable(false);
     }
 
     @FXML
@@ -65,22 +67,30 @@ public class DepartmentFormController implements Initializable {
         }
         try {
             entity = getFormData();
-            service.saveOrUpdate(entity);
-            notifyDataChangeListners();
-            Utils.currentStage(event).close();
-        }catch (DbException e){
-            Alerts.showAlert("Error saving object", null, e.getMessage(), Alert.AlertType.ERROR);
         }catch (ValidationException e){
             setErrorMesseges(e.getErrors());
+            return;
         }
+        Stage stage = Utils.currentStage(event);
+        boolean created = entity.getId() == null;
+        btSave.setDisable(true);
+        stage.getScene().setCursor(Cursor.WAIT);
+        Utils.onFxThread(service.saveOrUpdateAsync(entity), (result, error) -> {
+            btSave.setDisable(false);
+            stage.getScene().setCursor(Cursor.DEFAULT);
+            if(error != null){
+                Alerts.showAlert("Error saving object", null, error.getMessage(), Alert.AlertType.ERROR);
+                return;
+            }
+            notifyDataChangeListners(created);
+            stage.close();
+        });
 
 
     }
 
-    private void notifyDataChangeListners() {
-        for(DataChangeListener listener : dataChangeListeners){
-            listener.onDataChanged();
-        }
+    private void notifyDataChangeListners(boolean created) {
+        EventBus.publish(ChangeEvent.saved(Department.class, entity.getId(), entity, created));
     }
 
     private Department getFormData() {
@@ -1,33 +1,36 @@
 package gui;
 
 import application.Main;
-import db.DbIntegrityExeption;
-import gui.listeners.DataChangeListener;
+import gui.listeners.ChangeEvent;
+import gui.listeners.ChangeEventListener;
+import gui.listeners.EventBus;
 import gui.util.Alerts;
+import gui.util.IndexedRows;
+import gui.util.RefreshScheduler;
+import gui.util.ViewRegistry;
 import gui.util.Utils;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.layout.Pane;
-import javafx.stage.Modality;
 import javafx.stage.Stage;
 import model.entities.Department;
 import model.services.DepartmentService;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
-public class DepartmentListController implements Initializable, DataChangeListener {
+public class DepartmentListController implements Initializable, ChangeEventListener {
 
     @FXML
     private DepartmentService service;
@@ -53,6 +56,17 @@ public class DepartmentListController implements Initializable, DataChangeListen
     @FXML
     private ObservableList<Department> observableList;
 
+    private IndexedRows<Department> rows;
+
+    private final RefreshScheduler refreshScheduler = new RefreshScheduler(this::refresh);
+
+    //mesma ordem do findall: Name
+    private static final Comparator<Department> TABLE_ORDER =
+            Comparator.comparing(Department::getName, String.CASE_INSENSITIVE_ORDER).thenComparing(Department::getId);
+
+    @FXML
+    private ProgressIndicator progressIndicator;
+
     @FXML
     public void onBtNewAction(ActionEvent event){
         Stage parentStage = Utils.currentStage(event);
@@ -80,39 +94,53 @@ public class DepartmentListController implements Initializable, DataChangeListen
         Stage stage = (Stage) Main.getMainScene().getWindow();
         departmentTableView.prefHeightProperty().bind(stage.heightProperty());
 
+        observableList = FXCollections.observableArrayList();
+        rows = new IndexedRows<>(observableList, Department::getId, TABLE_ORDER);
+        //ordenar pelo cabecalho nao mexe na ordem que o IndexedRows usa na busca binaria
+        SortedList<Department> sortedList = new SortedList<>(observableList);
+        sortedList.comparatorProperty().bind(departmentTableView.comparatorProperty());
+        departmentTableView.setItems(sortedList);
+        initEditButtons();
+        initRemoveButtons();
+
     }
 
     public void updateTabeView(){
         if(service == null){
             throw new IllegalStateException("Service was null");
         }
-        List<Department> list = service.findAll();
+        EventBus.subscribe(Department.class, this);
+        refreshScheduler.request();
 
-        observableList = FXCollections.observableArrayList(list);
-        departmentTableView.setItems(observableList);
-        initEditButtons();
-        initRemoveButtons();
+    }
 
+    //chamado pelo RefreshScheduler, retorna a consulta em andamento
+    private CompletableFuture<?> refresh(){
+        progressIndicator.setVisible(true);
+        CompletableFuture<List<Department>> future = service.findAllAsync();
+        Utils.onFxThread(future, (list, error) -> {
+            progressIndicator.setVisible(false);
+            if(error != null){
+                Alerts.showAlert("Error loading departments", null, error.getMessage(), Alert.AlertType.ERROR);
+                return;
+            }
+            rows.setAll(list);
+        });
+        return future;
     }
 
     private void createDialogForm(Department obj, String path, Stage parentStage){
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(path));
-            Pane pane = loader.load();
+            ViewRegistry.View<DepartmentFormController> view = ViewRegistry.get(path);
 
-            DepartmentFormController controller = loader.getController();
+            DepartmentFormController controller = view.getController();
+            controller.reset();
             controller.setDepartment(obj);
             controller.setDepartmentService(new DepartmentService());
-            controller.subscribeDtaChangeListner(this);
 
             controller.updateFormData();
 
-            Stage diaogStage = new Stage();
-            diaogStage.setTitle("Enter Department Data");
-            diaogStage.setScene(new Scene(pane));
-            diaogStage.setResizable(false);
-            diaogStage.initOwner(parentStage);
-            diaogStage.initModality(Modality.WINDOW_MODAL);
+            Stage diaogStage = view.getStage("Enter Department Data", parentStage);
             diaogStage.showAndWait();
 
         }catch (IOException e){
@@ -123,8 +151,17 @@ public class DepartmentListController implements Initializable, DataChangeListen
     }
 
     @Override
-    public void onDataChanged() {
-        updateTabeView();
+    public void onChanges(List<ChangeEvent> events) {
+        for(ChangeEvent event : events){
+            if(event.getKind() == ChangeEvent.Kind.DELETED){
+                rows.remove(event.getId());
+            }else if(event.getEntity() instanceof Department){
+                rows.upsert((Department) event.getEntity(), true, true);
+            }else {
+                refreshScheduler.request();
+                return;
+            }
+        }
     }
 
 
@@ -170,12 +207,15 @@ public class DepartmentListController implements Initializable, DataChangeListen
             if(service == null){
                 throw new IllegalStateException(("Serviec was null"));
             }
-            try {
-                service.remove(obj);
-                updateTabeView();
-            }catch (DbIntegrityExeption e){
-                Alerts.showAlert("Error removing Object", null, e.getMessage(), Alert.AlertType.ERROR);
-            }
+            progressIndicator.setVisible(true);
+            Utils.onFxThread(service.removeAsync(obj), (removed, error) -> {
+                progressIndicator.setVisible(false);
+                if(error != null){
+                    Alerts.showAlert("Error removing Object", null, error.getMessage(), Alert.AlertType.ERROR);
+                    return;
+                }
+                EventBus.publish(ChangeEvent.deleted(Department.class, obj.getId()));
+            });
 
         }
     }
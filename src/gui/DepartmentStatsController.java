@@ -0,0 +1,141 @@
+package gui;
+
+import application.Main;
+import gui.listeners.ChangeEvent;
+import gui.listeners.ChangeEventListener;
+import gui.listeners.EventBus;
+import gui.util.Alerts;
+import gui.util.RefreshScheduler;
+import gui.util.Utils;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.Stage;
+import model.entities.Department;
+import model.entities.DepartmentStats;
+import model.entities.Seller;
+import model.services.DepartmentStatsService;
+
+import java.net.URL;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+
+public class DepartmentStatsController implements Initializable, ChangeEventListener {
+
+    private DepartmentStatsService service;
+
+    @FXML
+    private TableView<DepartmentStats> statsTableView;
+
+    @FXML
+    private TableColumn<DepartmentStats, String> tableColumnDepartment;
+
+    @FXML
+    private TableColumn<DepartmentStats, Integer> tableColumnHeadcount;
+
+    @FXML
+    private TableColumn<DepartmentStats, Double> tableColumnTotalSalary;
+
+    @FXML
+    private TableColumn<DepartmentStats, Double> tableColumnAvgSalary;
+
+    @FXML
+    private TableColumn<DepartmentStats, Double> tableColumnMinSalary;
+
+    @FXML
+    private TableColumn<DepartmentStats, Double> tableColumnMaxSalary;
+
+    @FXML
+    private TableColumn<DepartmentStats, Integer> tableColumnUnder30;
+
+    @FXML
+    private TableColumn<DepartmentStats, Integer> tableColumnFrom30to39;
+
+    @FXML
+    private TableColumn<DepartmentStats, Integer> tableColumnFrom40to49;
+
+    @FXML
+    private TableColumn<DepartmentStats, Integer> tableColumnFrom50;
+
+    @FXML
+    private ProgressIndicator progressIndicator;
+
+    private final ObservableList<DepartmentStats> observableList = FXCollections.observableArrayList();
+
+    private final RefreshScheduler refreshScheduler = new RefreshScheduler(this::refresh);
+
+    public void setService(DepartmentStatsService service) {
+        this.service = service;
+    }
+
+    @Override
+    public void initialize(URL url, ResourceBundle rb) {
+        initializeNodes();
+
+    }
+
+    private void initializeNodes() {
+        tableColumnDepartment.setCellValueFactory(
+                param -> new ReadOnlyStringWrapper(param.getValue().getDepartment().getName()));
+        tableColumnHeadcount.setCellValueFactory(new PropertyValueFactory<>("headcount"));
+
+        tableColumnTotalSalary.setCellValueFactory(new PropertyValueFactory<>("totalSalary"));
+        Utils.formatTableColumnDouble(tableColumnTotalSalary, 2);
+        tableColumnAvgSalary.setCellValueFactory(new PropertyValueFactory<>("avgSalary"));
+        Utils.formatTableColumnDouble(tableColumnAvgSalary, 2);
+        tableColumnMinSalary.setCellValueFactory(new PropertyValueFactory<>("minSalary"));
+        Utils.formatTableColumnDouble(tableColumnMinSalary, 2);
+        tableColumnMaxSalary.setCellValueFactory(new PropertyValueFactory<>("maxSalary"));
+        Utils.formatTableColumnDouble(tableColumnMaxSalary, 2);
+
+        tableColumnUnder30.setCellValueFactory(new PropertyValueFactory<>("under30"));
+        tableColumnFrom30to39.setCellValueFactory(new PropertyValueFactory<>("from30to39"));
+        tableColumnFrom40to49.setCellValueFactory(new PropertyValueFactory<>("from40to49"));
+        tableColumnFrom50.setCellValueFactory(new PropertyValueFactory<>("from50"));
+
+        statsTableView.setItems(observableList);
+
+        Stage stage = (Stage) Main.getMainScene().getWindow();
+        statsTableView.prefHeightProperty().bind(stage.heightProperty());
+    }
+
+    public void updateTabeView(){
+        if(service == null){
+            throw new IllegalStateException("Service was null");
+        }
+        //qualquer escrita em vendedores ou departamentos muda os totais
+        EventBus.subscribe(Seller.class, this);
+        EventBus.subscribe(Department.class, this);
+        refreshScheduler.request();
+    }
+
+    @Override
+    public void onChanges(List<ChangeEvent> events) {
+        if(service != null){
+            refreshScheduler.request();
+        }
+    }
+
+    //chamado pelo RefreshScheduler, retorna a consulta em andamento
+    private CompletableFuture<?> refresh(){
+        progressIndicator.setVisible(true);
+        CompletableFuture<List<DepartmentStats>> future = service.findAllAsync();
+        Utils.onFxThread(future, (list, error) -> {
+            progressIndicator.setVisible(false);
+            if(error != null){
+                Alerts.showAlert("Error loading statistics", null, error.getMessage(), Alert.AlertType.ERROR);
+                return;
+            }
+            observableList.setAll(list);
+        });
+        return future;
+    }
+}
@@ -1,9 +1,11 @@
 package gui;
 
 import application.Main;
+import gui.listeners.ChangeEventListener;
+import gui.listeners.EventBus;
 import gui.util.Alerts;
+import gui.util.ViewRegistry;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
 import javafx.scene.Scene;
@@ -12,6 +14,7 @@ import javafx.scene.control.MenuItem;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.VBox;
 import model.services.DepartmentService;
+import model.services.DepartmentStatsService;
 import model.services.SellerService;
 
 import java.io.IOException;
@@ -27,9 +30,15 @@ public class MainViewController implements Initializable {
     @FXML
     private MenuItem menuItemDepartment;
 
+    @FXML
+    private MenuItem menuItemDepartmentStats;
+
     @FXML
     private MenuItem menuItemAbout;
 
+    //controller da tela que esta na janela principal
+    private Object shownController;
+
     @FXML
     public void onMenuItemSellerAction() {
         loadView("/gui/SellerList.fxml", (SellerListController controoller) -> {
@@ -46,6 +55,14 @@ public class MainViewController implements Initializable {
         });
     }
 
+    @FXML
+    public void onMenuItemDepartmentStatsAction() {
+        loadView("/gui/DepartmentStats.fxml", (DepartmentStatsController controoller) -> {
+            controoller.setService(new DepartmentStatsService());
+            controoller.updateTabeView();
+        });
+    }
+
     @FXML
     public void onMenuItemAboutAction() {
         loadView("/gui/About.fxml",  x -> {});
@@ -54,13 +71,17 @@ public class MainViewController implements Initializable {
     @Override
     public void initialize(URL url, ResourceBundle rb) {
 
-
     }
 
+    //telas que podem ser carregadas antes do primeiro clique
+    public static final String[] PRELOADED_VIEWS = {
+            "/gui/SellerList.fxml", "/gui/DepartmentList.fxml", "/gui/SellerForm.fxml", "/gui/DepartmentForm.fxml",
+            "/gui/DepartmentStats.fxml"
+    };
+
     private synchronized <T> void loadView(String path, Consumer<T> inicializingAction) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(path));
-            VBox newVbox = loader.load();
+            ViewRegistry.View<T> view = ViewRegistry.get(path);
 
             Scene mainScene = Main.getMainScene();
             VBox mainVbox = (VBox) ((ScrollPane) mainScene.getRoot()).getContent();
@@ -68,9 +89,15 @@ public class MainViewController implements Initializable {
             Node mainMenu = mainVbox.getChildren().get(0);
             mainVbox.getChildren().clear();
             mainVbox.getChildren().add(mainMenu);
-            mainVbox.getChildren().addAll(newVbox.getChildren());
-
-            T controller = loader.getController();
+            mainVbox.getChildren().addAll(view.getChildren());
+
+            T controller = view.getController();
+            //o controller fica no ViewRegistry, mas a tela que sai de cena para de receber eventos;
+            //quando volta ela assina de novo e recarrega
+            if (shownController != controller && shownController instanceof ChangeEventListener) {
+                EventBus.unsubscribe((ChangeEventListener) shownController);
+            }
+            shownController = controller;
             inicializingAction.accept(controller);
 
         } catch (IOException e) {
@@ -1,7 +1,7 @@
 package gui;
 
-import db.DbException;
-import gui.listeners.DataChangeListener;
+import gui.listeners.ChangeEvent;
+import gui.listeners.EventBus;
 import gui.util.Alerts;
 import gui.util.Constraints;
 import gui.util.Utils;
@@ -10,13 +10,16 @@ import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.scene.Cursor;
 import javafx.scene.control.*;
 import javafx.util.Callback;
+import javafx.stage.Stage;
 import model.entities.Department;
 import model.entities.Seller;
 import model.exceptions.ValidationException;
 import model.services.DepartmentService;
 import model.services.SellerService;
+import model.services.SellerValidator;
 
 import java.net.URL;
 import java.time.Instant;
@@ -32,8 +35,6 @@ public class SellerFormController implements Initializable {
 
     private DepartmentService  departmentService;
 
-    private List<DataChangeListener> dataChangeListeners = new ArrayList<>();
-
 
     @FXML
     private TextField txtId;
@@ -84,8 +85,14 @@ public class SellerFormController implements Initializable {
         this.departmentService = departmentService;
     }
 
-    public void subscribeDtaChangeListner(DataChangeListener listener){
-        dataChangeListeners.add(listener);
+    //o dialogo e reaproveitado, limpa o que ficou da ultima vez
+    public void reset(){
+        labelErrorName.setText("");
+        labelErrorEmail.setText("");
+        labelErrorBirthDate.setText("");
+        labelErrorBaseSalary.setText("");
+        dpBirthDate.setValue(null);
+        btSave.setDisable(false);
     }
 
     @FXML
@@ -98,60 +105,51 @@ public class SellerFormController implements Initializable {
         }
         try {
             entity = getFormData();
-            service.saveOrUpdate(entity);
-            notifyDataChangeListners();
-            Utils.currentStage(event).close();
-        }catch (DbException e){
-            Alerts.showAlert("Error saving object", null, e.getMessage(), Alert.AlertType.ERROR);
         }catch (ValidationException e){
             setErrorMesseges(e.getErrors());
+            return;
         }
+        Stage stage = Utils.currentStage(event);
+        boolean created = entity.getId() == null;
+        btSave.setDisable(true);
+        stage.getScene().setCursor(Cursor.WAIT);
+        Utils.onFxThread(service.saveOrUpdateAsync(entity), (result, error) -> {
+            btSave.setDisable(false);
+            stage.getScene().setCursor(Cursor.DEFAULT);
+            if(error != null){
+                Alerts.showAlert("Error saving object", null, error.getMessage(), Alert.AlertType.ERROR);
+                return;
+            }
+            notifyDataChangeListners(created);
+            stage.close();
+        });
 
 
     }
 
-    private void notifyDataChangeListners() {
-        for(DataChangeListener listener : dataChangeListeners){
-            listener.onDataChanged();
-        }
+    private void notifyDataChangeListners(boolean created) {
+        EventBus.publish(ChangeEvent.saved(Seller.class, entity.getId(), entity, created));
     }
 
+    //o vendedor recebido e compartilhado com a tabela e os caches, a edicao acontece numa copia
     private Seller getFormData() {
-        Seller obj = new Seller();
-
-        ValidationException exception = new ValidationException("Validation Error");
+        Seller obj = entity.copy();
 
         obj.setId(Utils.tryParsetoInt(txtId.getText()));
-
-        if(txtName.getText() == null || txtName.getText().trim().equals("")){
-            exception.addError("name", "Field can't be emppty");
-        }
         obj.setName(txtName.getText());
-
-        if(txtEmail.getText() == null || txtEmail.getText().trim().equals("")){
-            exception.addError("email", "Field can't be emppty");
-        }
         obj.setEmail(txtEmail.getText());
 
-
-
-        if(dpBirthDate.getValue() == null){
-            exception.addError("birthDate", "Field can't be emppty");
-        }else {
+        if(dpBirthDate.getValue() != null){
             Instant instant = Instant.from(dpBirthDate.getValue().atStartOfDay(ZoneId.systemDefault()));
             obj.setBirthDate(Date.from(instant));
         }
 
-        if(txtBaseSalary.getText() == null || txtBaseSalary.getText().trim().equals("")){
-            exception.addError("baseSalary", "Field can't be emppty");
-        }
         obj.setBaseSalary(Utils.tryParsetoDouble(txtBaseSalary.getText()));
 
         obj.setDepartment(comboBoxDepartment.getValue());
 
-        if(exception.getErrors().size() > 0){
-            throw exception;
-        }
+        //mesmas regras da importacao de vendedores
+        SellerValidator.validate(obj);
 
         return obj;
     }
@@ -169,9 +167,9 @@ public class SellerFormController implements Initializable {
 
     private void initiaizeNodes(){
         Constraints.setTextFieldInteger(txtId);
-        Constraints.setTextFieldMaxLength(txtName, 70);
+        Constraints.setTextFieldMaxLength(txtName, SellerValidator.MAX_NAME_LENGTH);
         Constraints.setTextFieldDouble(txtBaseSalary);
-        Constraints.setTextFieldMaxLength(txtEmail, 70);
+        Constraints.setTextFieldMaxLength(txtEmail, SellerValidator.MAX_EMAIL_LENGTH);
         Utils.formatDatePicker(dpBirthDate, "dd/MM/yyyy");
         initializeComboBoxDepartment();
     }
@@ -186,7 +184,7 @@ public class SellerFormController implements Initializable {
         Locale.setDefault(Locale.US);
         txtBaseSalary.setText(String.format("%.2f", entity.getBaseSalary()));
         if(entity.getBirthDate() != null){
-            dpBirthDate.setValue(LocalDate.ofInstant(entity.getBirthDate().toInstant(), ZoneId.systemDefault()));
+            dpBirthDate.setValue(LocalDate.ofInstant(Instant.ofEpochMilli(entity.getBirthDate().getTime()), ZoneId.systemDefault()));
         }
         if(entity.getDepartment() == null){
             comboBoxDepartment.getSelectionModel().selectFirst();
@@ -201,9 +199,19 @@ public class SellerFormController implements Initializable {
         if(departmentService == null){
             throw new IllegalStateException("Department Service is null");
         }
-        List<Department> list = departmentService.findAll();
-        obsList = FXCollections.observableArrayList(list);
-        comboBoxDepartment.setItems(obsList);
+        comboBoxDepartment.setDisable(true);
+        Utils.onFxThread(departmentService.findAllAsync(), (list, error) -> {
+            comboBoxDepartment.setDisable(false);
+            if(error != null){
+                Alerts.showAlert("Error loading departments", null, error.getMessage(), Alert.AlertType.ERROR);
+                return;
+            }
+            obsList = FXCollections.observableArrayList(list);
+            comboBoxDepartment.setItems(obsList);
+            if(comboBoxDepartment.getValue() == null){
+                comboBoxDepartment.getSelectionModel().selectFirst();
+            }
+        });
     }
 
     private void setErrorMesseges(Map<String,String> errors){
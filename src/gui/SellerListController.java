@@ -1,68 +1,132 @@
 package gui;
 
 import application.Main;
-import db.DbIntegrityExeption;
-import gui.listeners.DataChangeListener;
+import application.StartupPipeline;
+import gui.listeners.ChangeEvent;
+import gui.listeners.ChangeEventListener;
+import gui.listeners.EventBus;
 import gui.util.Alerts;
+import gui.util.IndexedRows;
+import gui.util.RefreshScheduler;
+import gui.util.ViewRegistry;
 import gui.util.Utils;
-import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.layout.Pane;
-import javafx.stage.Modality;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
+import model.entities.Department;
 import model.entities.Seller;
 import model.services.DepartmentService;
+import model.services.SellerExportService;
+import model.services.SellerImportService;
 import model.services.SellerService;
+import model.services.SnapshotService;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
-import java.util.Date;
+import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
-public class SellerListController implements Initializable, DataChangeListener {
+public class SellerListController implements Initializable, ChangeEventListener {
+
+    private static final int PAGE_SIZE = 200;
+
+    private static final Duration SEARCH_DELAY = Duration.millis(250);
+
+    private static final int MAX_INDEXED_RESULTS = 1000;
+
+    private static final String ALL_DEPARTMENTS = "All departments";
+
+    //mesma ordem da consulta por paginas: Name, Id
+    private static final Comparator<SellerRow> TABLE_ORDER =
+            Comparator.comparing(SellerRow::getName, String.CASE_INSENSITIVE_ORDER).thenComparing(SellerRow::getSellerId);
 
     @FXML
     private SellerService service;
 
     @FXML
-    private TableView<Seller> SellerTableView;
+    private TableView<SellerRow> SellerTableView;
 
     @FXML
-    private TableColumn<Seller, Integer> tableColumnId;
+    private TableColumn<SellerRow, SellerRow> tableColumnId;
 
     @FXML
-    private TableColumn<Seller, String> tableColumnName;
+    private TableColumn<SellerRow, SellerRow> tableColumnName;
 
     @FXML
-    private TableColumn<Seller, String> tableColumnEmail;
+    private TableColumn<SellerRow, SellerRow> tableColumnEmail;
 
     @FXML
-    private TableColumn<Seller, Date> tableColumnBirthDate;
+    private TableColumn<SellerRow, SellerRow> tableColumnBirthDate;
 
     @FXML
-    private TableColumn<Seller, Double> tableColumnBaseSalary;
+    private TableColumn<SellerRow, SellerRow> tableColumnBaseSalary;
 
     @FXML
-    private TableColumn<Seller,Seller> tableColumnEDIT;
+    private TableColumn<SellerRow,SellerRow> tableColumnEDIT;
 
     @FXML
-    private TableColumn<Seller, Seller> tableColumnREMOVE;
+    private TableColumn<SellerRow, SellerRow> tableColumnREMOVE;
 
     @FXML
     private Button btNew;
 
     @FXML
-    private ObservableList<Seller> observableList;
+    private Button btImport;
+
+    //importacao em andamento, null quando nao ha nenhuma
+    private AtomicBoolean importCancelled;
+
+    @FXML
+    private Button btExport;
+
+    //exportacao em andamento, null quando nao ha nenhuma
+    private AtomicBoolean exportCancelled;
+
+    @FXML
+    private ObservableList<SellerRow> observableList;
+
+    private IndexedRows<SellerRow> rows;
+
+    @FXML
+    private ProgressIndicator progressIndicator;
+
+    @FXML
+    private TextField txtSearch;
+
+    private final PauseTransition searchDelay = new PauseTransition(SEARCH_DELAY);
+
+    private final RefreshScheduler refreshScheduler = new RefreshScheduler(this::refresh);
+
+    private String searchPrefix;
+
+    private boolean hasMorePages;
+
+    private boolean loadingPage;
+
+    //as linhas vieram do snapshot local e ainda nao foram confirmadas pelo banco
+    private boolean showingSnapshot;
+
+    //descarta paginas de uma carga anterior da tabela
+    private int loadGeneration;
 
     @FXML
     public void onBtNewAction(ActionEvent event){
@@ -73,6 +137,130 @@ public class SellerListController implements Initializable, DataChangeListener {
 
     }
 
+    //durante a importacao o mesmo botao cancela
+    @FXML
+    public void onBtImportAction(ActionEvent event){
+        if(importCancelled != null){
+            importCancelled.set(true);
+            btImport.setDisable(true);
+            return;
+        }
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import sellers");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showOpenDialog(Utils.currentStage(event));
+        if(file == null){
+            return;
+        }
+        AtomicBoolean cancelled = new AtomicBoolean();
+        importCancelled = cancelled;
+        btImport.setText("Cancel");
+        progressIndicator.setProgress(0);
+        progressIndicator.setVisible(true);
+
+        SellerImportService importService = new SellerImportService();
+        CompletableFuture<SellerImportService.Progress> future = importService.importCsvAsync(file.toPath(), cancelled,
+                progress -> Platform.runLater(() -> progressIndicator.setProgress(progress.getFraction())));
+        Utils.onFxThread(future, (result, error) -> {
+            importCancelled = null;
+            btImport.setText("Import");
+            btImport.setDisable(false);
+            progressIndicator.setVisible(false);
+            progressIndicator.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+            refreshScheduler.request();
+            if(error != null){
+                Alerts.showAlert("Error importing sellers", null, error.getMessage(), Alert.AlertType.ERROR);
+                return;
+            }
+            String summary = String.format("%d imported, %d rejected%s", result.getImported(), result.getRejected(),
+                    result.isCancelled() ? " (cancelled, rows already imported were kept)" : "");
+            if(result.getRejected() > 0){
+                summary += "\nRejected rows: " + result.getReportFile();
+            }
+            Alerts.showAlert("Import finished", null, summary, Alert.AlertType.INFORMATION);
+        });
+    }
+
+    //durante a exportacao o mesmo botao cancela
+    @FXML
+    public void onBtExportAction(ActionEvent event){
+        if(exportCancelled != null){
+            exportCancelled.set(true);
+            btExport.setDisable(true);
+            return;
+        }
+        Stage parentStage = Utils.currentStage(event);
+        btExport.setDisable(true);
+        Utils.onFxThread(new DepartmentService().findAllAsync(), (departments, error) -> {
+            btExport.setDisable(false);
+            if(error != null){
+                Alerts.showAlert("Error loading departments", null, error.getMessage(), Alert.AlertType.ERROR);
+                return;
+            }
+            exportSellers(parentStage, departments);
+        });
+    }
+
+    private void exportSellers(Stage parentStage, List<Department> departments){
+        List<String> choices = new ArrayList<>();
+        choices.add(ALL_DEPARTMENTS);
+        for(Department dep : departments){
+            choices.add(dep.getName());
+        }
+        ChoiceDialog<String> dialog = new ChoiceDialog<>(ALL_DEPARTMENTS, choices);
+        dialog.setTitle("Export sellers");
+        dialog.setHeaderText(null);
+        dialog.setContentText("Department:");
+        dialog.initOwner(parentStage);
+        Optional<String> choice = dialog.showAndWait();
+        if(!choice.isPresent()){
+            return;
+        }
+        Department department = null;
+        if(!ALL_DEPARTMENTS.equals(choice.get())){
+            department = departments.get(choices.indexOf(choice.get()) - 1);
+        }
+
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export sellers");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV files", "*.csv"),
+                new FileChooser.ExtensionFilter("JSON files", "*.json"));
+        File file = chooser.showSaveDialog(parentStage);
+        if(file == null){
+            return;
+        }
+        SellerExportService.Format format = file.getName().toLowerCase(Locale.ROOT).endsWith(".json")
+                ? SellerExportService.Format.JSON : SellerExportService.Format.CSV;
+
+        AtomicBoolean cancelled = new AtomicBoolean();
+        exportCancelled = cancelled;
+        btExport.setText("Cancel");
+        progressIndicator.setProgress(0);
+        progressIndicator.setVisible(true);
+
+        SellerExportService exportService = new SellerExportService();
+        CompletableFuture<Long> future = exportService.exportAsync(file.toPath(), format, department, cancelled,
+                progress -> Platform.runLater(() -> progressIndicator.setProgress(progress)));
+        Utils.onFxThread(future, (written, error) -> {
+            exportCancelled = null;
+            btExport.setText("Export");
+            btExport.setDisable(false);
+            progressIndicator.setVisible(false);
+            progressIndicator.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+            if(error instanceof CancellationException){
+                Alerts.showAlert("Export cancelled", null, "The partial file was removed", Alert.AlertType.INFORMATION);
+                return;
+            }
+            if(error != null){
+                Alerts.showAlert("Error exporting sellers", null, error.getMessage(), Alert.AlertType.ERROR);
+                return;
+            }
+            Alerts.showAlert("Export finished", null, written + " sellers exported to " + file,
+                    Alert.AlertType.INFORMATION);
+        });
+    }
+
     public void setService(SellerService service) {
         this.service = service;
     }
@@ -85,54 +273,182 @@ public class SellerListController implements Initializable, DataChangeListener {
     }
 
     private void initializeNodes() {
-        tableColumnId.setCellValueFactory(new PropertyValueFactory<>("id"));
-        tableColumnName.setCellValueFactory(new PropertyValueFactory<>("name"));
-        tableColumnEmail.setCellValueFactory(new PropertyValueFactory<>("email"));
-
-        tableColumnBirthDate.setCellValueFactory(new PropertyValueFactory<>("birthDate"));
-        Utils.formatTableColumnDate(tableColumnBirthDate, "dd//MM/yyyy");
-
-        tableColumnBaseSalary.setCellValueFactory(new PropertyValueFactory<>("baseSalary"));
-        Utils.formatTableColumnDouble(tableColumnBaseSalary, 2);
+        //as celulas so copiam o texto pronto da linha
+        initTextColumn(tableColumnId, SellerRow::getId,
+                Comparator.comparing(row -> row.getSeller().getId()));
+        initTextColumn(tableColumnName, SellerRow::getName,
+                Comparator.comparing(SellerRow::getName, String.CASE_INSENSITIVE_ORDER));
+        initTextColumn(tableColumnEmail, SellerRow::getEmail,
+                Comparator.comparing(SellerRow::getEmail, String.CASE_INSENSITIVE_ORDER));
+        initTextColumn(tableColumnBirthDate, SellerRow::getBirthDate,
+                Comparator.comparing(row -> row.getSeller().getBirthDate(), Comparator.nullsFirst(Comparator.naturalOrder())));
+        initTextColumn(tableColumnBaseSalary, SellerRow::getBaseSalary,
+                Comparator.comparing(row -> row.getSeller().getBaseSalary(), Comparator.nullsFirst(Comparator.naturalOrder())));
 
         Stage stage = (Stage) Main.getMainScene().getWindow();
         SellerTableView.prefHeightProperty().bind(stage.heightProperty());
 
+        Utils.onScrolledNearEnd(SellerTableView, 0.9, this::loadNextPage);
+
+        //so consulta depois que o usuario para de digitar
+        searchDelay.setOnFinished(event -> applySearch(txtSearch.getText()));
+        txtSearch.textProperty().addListener((obs, oldValue, newValue) -> searchDelay.playFromStart());
+        txtSearch.setOnAction(event -> {
+            searchDelay.stop();
+            applySearch(txtSearch.getText());
+        });
+
+    }
+
+    private void applySearch(String text){
+        String prefix = text == null || text.trim().isEmpty() ? null : text.trim();
+        if(Objects.equals(prefix, searchPrefix)){
+            return;
+        }
+        searchPrefix = prefix;
+        if(prefix != null && showIndexedResults(prefix)){
+            return;
+        }
+        //a pagina da busca anterior que ainda chegar e descartada; a consulta nova espera ela terminar no banco
+        loadGeneration++;
+        loadingPage = false;
+        refreshScheduler.request();
+    }
+
+    //com o indice pronto a busca nao vai ao banco, mostra ate MAX_INDEXED_RESULTS linhas
+    private boolean showIndexedResults(String prefix){
+        List<Seller> found = service.searchIndexed(prefix, MAX_INDEXED_RESULTS);
+        if(found == null){
+            return false;
+        }
+        //uma consulta em andamento continua ate o fim (o RefreshScheduler conta com ela), so o resultado e descartado
+        loadGeneration++;
+        loadingPage = false;
+        hasMorePages = false;
+        progressIndicator.setVisible(false);
+        showingSnapshot = false;
+        rows.setAll(toRows(found));
+        SellerTableView.scrollTo(0);
+        return true;
     }
 
     public void updateTabeView(){
         if(service == null){
             throw new IllegalStateException("Service was null");
         }
-        List<Seller> list = service.findAll();
+        //assina enquanto a tela esta na janela, o MainViewController cancela quando ela sai
+        EventBus.subscribe(Seller.class, this);
+        EventBus.subscribe(Department.class, this);
+        if(observableList == null){
+            observableList = FXCollections.observableArrayList();
+            rows = new IndexedRows<>(observableList, SellerRow::getSellerId, TABLE_ORDER);
+            //a ordenacao pelo cabecalho fica so na visao, observableList continua na ordem da consulta
+            //e a ultima linha dela e o cursor da proxima pagina
+            SortedList<SellerRow> sortedList = new SortedList<>(observableList);
+            sortedList.comparatorProperty().bind(SellerTableView.comparatorProperty());
+            SellerTableView.setItems(sortedList);
+            initEditButtons();
+            initRemoveButtons();
+            service.buildSearchIndexAsync();
+            showSnapshot();
+        }
+        refreshScheduler.request();
+
+    }
+
+    //mostra logo as linhas do ultimo snapshot, a primeira pagina do banco substitui elas quando chegar
+    private void showSnapshot(){
+        List<Seller> stale = SnapshotService.takeSellers();
+        if(stale == null || stale.isEmpty()){
+            return;
+        }
+        rows.setAll(toRows(stale));
+        showingSnapshot = true;
+        StartupPipeline.markFirstSellerList();
+    }
+
+    //chamado pelo RefreshScheduler, retorna a consulta em andamento
+    private CompletableFuture<?> refresh(){
+        if(searchPrefix != null && showIndexedResults(searchPrefix)){
+            return CompletableFuture.completedFuture(null);
+        }
+        return reload();
+    }
+
+    //recomeca da primeira pagina, as linhas atuais ficam ate a nova pagina chegar
+    private CompletableFuture<?> reload(){
+        loadGeneration++;
+        loadingPage = false;
+        hasMorePages = true;
+        return loadPage(true);
+    }
 
-        observableList = FXCollections.observableArrayList(list);
-        SellerTableView.setItems(observableList);
-        initEditButtons();
-        initRemoveButtons();
+    //a proxima pagina tambem passa pelo RefreshScheduler: com outra consulta em andamento o pedido e ignorado
+    //e a rolagem pede de novo
+    private void loadNextPage(){
+        if(loadingPage || !hasMorePages || service == null){
+            return;
+        }
+        refreshScheduler.runIfIdle(() -> loadPage(false));
+    }
 
+    //carrega uma pagina a partir da ultima linha ja exibida (ou a primeira), retorna a consulta
+    private CompletableFuture<?> loadPage(boolean replace){
+        if(service == null){
+            return CompletableFuture.completedFuture(null);
+        }
+        loadingPage = true;
+        progressIndicator.setVisible(true);
+        String afterName = null;
+        Integer afterId = null;
+        if(!replace && !observableList.isEmpty()){
+            Seller last = observableList.get(observableList.size() - 1).getSeller();
+            afterName = last.getName();
+            afterId = last.getId();
+        }
+        int generation = loadGeneration;
+        CompletableFuture<List<Seller>> load = service.findPageAsync(searchPrefix, afterName, afterId, PAGE_SIZE);
+        Utils.onFxThread(load, (page, error) -> {
+            //resultado de uma busca ou carga que ja foi substituida
+            if(generation != loadGeneration){
+                return;
+            }
+            loadingPage = false;
+            progressIndicator.setVisible(false);
+            if(error != null){
+                Alerts.showAlert("Error loading sellers", null, error.getMessage(), Alert.AlertType.ERROR);
+                return;
+            }
+            if(replace){
+                rows.setAll(toRows(page));
+                //trocar o snapshot pelos dados atuais nao mexe na rolagem
+                if(!showingSnapshot){
+                    SellerTableView.scrollTo(0);
+                }
+                showingSnapshot = false;
+                StartupPipeline.markFirstSellerList();
+            }else {
+                rows.addAll(toRows(page));
+            }
+            hasMorePages = page.size() == PAGE_SIZE;
+        });
+        return load;
     }
 
 
     private void createDialogForm(Seller obj, String path, Stage parentStage){
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(path));
-            Pane pane = loader.load();
+            ViewRegistry.View<SellerFormController> view = ViewRegistry.get(path);
 
-            SellerFormController controller = loader.getController();
+            SellerFormController controller = view.getController();
+            controller.reset();
             controller.setSeller(obj);
             controller.setServices(new SellerService(), new DepartmentService());
             controller.loadAssociatedbObjects();
-            controller.subscribeDtaChangeListner(this);
 
             controller.updateFormData();
 
-            Stage diaogStage = new Stage();
-            diaogStage.setTitle("Enter Seller Data");
-            diaogStage.setScene(new Scene(pane));
-            diaogStage.setResizable(false);
-            diaogStage.initOwner(parentStage);
-            diaogStage.initModality(Modality.WINDOW_MODAL);
+            Stage diaogStage = view.getStage("Enter Seller Data", parentStage);
             diaogStage.showAndWait();
 
         }catch (IOException e){
@@ -142,44 +458,100 @@ public class SellerListController implements Initializable, DataChangeListener {
 
     }
 
+    //atualiza so as linhas alteradas, na posicao certa da ordenacao e respeitando a busca atual
     @Override
-    public void onDataChanged() {
-        updateTabeView();
+    public void onChanges(List<ChangeEvent> events) {
+        if(rows == null){
+            return;
+        }
+        //muitas alteracoes de uma vez: mais barato recarregar a primeira pagina
+        if(events.size() > PAGE_SIZE){
+            refreshScheduler.request();
+            return;
+        }
+        for(ChangeEvent event : events){
+            //departamento renomeado: as linhas ja formatadas mostram o nome antigo
+            if(event.getEntityType() != Seller.class){
+                refreshScheduler.request();
+                return;
+            }
+            if(event.getKind() == ChangeEvent.Kind.DELETED){
+                rows.remove(event.getId());
+            }else if(event.getEntity() instanceof Seller){
+                Seller obj = (Seller) event.getEntity();
+                rows.upsert(toRow(obj), matchesSearch(obj), !hasMorePages);
+            }else {
+                refreshScheduler.request();
+                return;
+            }
+        }
+    }
+
+    //reaproveita a linha quando o cache devolveu a mesma instancia de Seller
+    private SellerRow toRow(Seller obj){
+        SellerRow row = rows.get(obj.getId());
+        return row != null && row.getSeller() == obj ? row : new SellerRow(obj);
+    }
+
+    private List<SellerRow> toRows(List<Seller> list){
+        List<SellerRow> result = new ArrayList<>(list.size());
+        for(Seller obj : list){
+            result.add(toRow(obj));
+        }
+        return result;
+    }
+
+    private void initTextColumn(TableColumn<SellerRow, SellerRow> column, Function<SellerRow, String> text,
+                                Comparator<SellerRow> comparator){
+        column.setCellValueFactory(param -> param.getValue().asObservable());
+        column.setComparator(comparator);
+        column.setCellFactory(param -> new TableCell<SellerRow, SellerRow>() {
+            @Override
+            protected void updateItem(SellerRow row, boolean empty) {
+                super.updateItem(row, empty);
+                setText(empty || row == null ? null : text.apply(row));
+            }
+        });
+    }
+
+    private boolean matchesSearch(Seller obj){
+        if(searchPrefix == null){
+            return true;
+        }
+        String prefix = searchPrefix.toLowerCase(Locale.ROOT);
+        return (obj.getName() != null && obj.getName().toLowerCase(Locale.ROOT).startsWith(prefix))
+                || (obj.getEmail() != null && obj.getEmail().toLowerCase(Locale.ROOT).startsWith(prefix));
     }
 
 
     private void initEditButtons() {
-        tableColumnEDIT.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue()));
-        tableColumnEDIT.setCellFactory(param -> new TableCell<Seller, Seller>() {
+        tableColumnEDIT.setCellValueFactory(param -> param.getValue().asObservable());
+        tableColumnEDIT.setCellFactory(param -> new TableCell<SellerRow, SellerRow>() {
             private final Button button = new Button("edit");
-            @Override
-            protected void updateItem(Seller obj, boolean empty) {
-                super.updateItem(obj, empty);
-                if (obj == null) {
-                    setGraphic(null);
-                    return;
-                }
-                setGraphic(button);
+            {
                 button.setOnAction(
                         event -> createDialogForm(
-                                obj, "/gui/SellerForm.fxml",Utils.currentStage(event)));
+                                getItem().getSeller(), "/gui/SellerForm.fxml",Utils.currentStage(event)));
+            }
+            @Override
+            protected void updateItem(SellerRow obj, boolean empty) {
+                super.updateItem(obj, empty);
+                setGraphic(obj == null ? null : button);
             }
         });
     }
 
     private void initRemoveButtons() {
-        tableColumnREMOVE.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue()));
-        tableColumnREMOVE.setCellFactory(param -> new TableCell<Seller, Seller>() {
+        tableColumnREMOVE.setCellValueFactory(param -> param.getValue().asObservable());
+        tableColumnREMOVE.setCellFactory(param -> new TableCell<SellerRow, SellerRow>() {
             private final Button button = new Button("remove");
+            {
+                button.setOnAction(event -> removeEntity(getItem().getSeller()));
+            }
             @Override
-            protected void updateItem(Seller obj, boolean empty) {
+            protected void updateItem(SellerRow obj, boolean empty) {
                 super.updateItem(obj, empty);
-                if (obj == null) {
-                    setGraphic(null);
-                    return;
-                }
-                setGraphic(button);
-                button.setOnAction(event -> removeEntity(obj));
+                setGraphic(obj == null ? null : button);
             }
         });
     }
@@ -190,12 +562,15 @@ public class SellerListController implements Initializable, DataChangeListener {
             if(service == null){
                 throw new IllegalStateException(("Serviec was null"));
             }
-            try {
-                service.remove(obj);
-                updateTabeView();
-            }catch (DbIntegrityExeption e){
-                Alerts.showAlert("Error removing Object", null, e.getMessage(), Alert.AlertType.ERROR);
-            }
+            progressIndicator.setVisible(true);
+            Utils.onFxThread(service.removeAsync(obj), (removed, error) -> {
+                progressIndicator.setVisible(false);
+                if(error != null){
+                    Alerts.showAlert("Error removing Object", null, error.getMessage(), Alert.AlertType.ERROR);
+                    return;
+                }
+                EventBus.publish(ChangeEvent.deleted(Seller.class, obj.getId()));
+            });
 
         }
     }
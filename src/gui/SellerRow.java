@@ -0,0 +1,70 @@
+package gui;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ObservableValue;
+import model.entities.Seller;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+//linha da tabela de vendedores com os textos ja formatados, criada de novo so quando o Seller muda
+public class SellerRow {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd//MM/yyyy");
+
+    private final Seller seller;
+    private final String id;
+    private final String name;
+    private final String email;
+    private final String birthDate;
+    private final String baseSalary;
+
+    //valor unico usado por todas as colunas da linha
+    private final ObservableValue<SellerRow> observable;
+
+    public SellerRow(Seller seller) {
+        this.seller = seller;
+        this.id = seller.getId() == null ? "" : String.valueOf(seller.getId());
+        this.name = seller.getName() == null ? "" : seller.getName();
+        this.email = seller.getEmail() == null ? "" : seller.getEmail();
+        this.birthDate = seller.getBirthDate() == null ? "" : DATE_FORMAT.format(
+                LocalDate.ofInstant(Instant.ofEpochMilli(seller.getBirthDate().getTime()), ZoneId.systemDefault()));
+        this.baseSalary = seller.getBaseSalary() == null ? "" : String.format(Locale.US, "%.2f", seller.getBaseSalary());
+        this.observable = new ReadOnlyObjectWrapper<>(this).getReadOnlyProperty();
+    }
+
+    public Seller getSeller() {
+        return seller;
+    }
+
+    public Integer getSellerId() {
+        return seller.getId();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getBirthDate() {
+        return birthDate;
+    }
+
+    public String getBaseSalary() {
+        return baseSalary;
+    }
+
+    public ObservableValue<SellerRow> asObservable() {
+        return observable;
+    }
+}
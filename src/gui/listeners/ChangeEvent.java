@@ -0,0 +1,54 @@
+package gui.listeners;
+
+//alteracao de uma entidade: tipo, Id, o que aconteceu e o objeto salvo (null quando removido)
+public class ChangeEvent {
+
+    public enum Kind {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Class<?> entityType;
+    private final Integer id;
+    private final Kind kind;
+    private final Object entity;
+
+    public ChangeEvent(Class<?> entityType, Integer id, Kind kind, Object entity) {
+        this.entityType = entityType;
+        this.id = id;
+        this.kind = kind;
+        this.entity = entity;
+    }
+
+    public static ChangeEvent saved(Class<?> entityType, Integer id, Object entity, boolean created) {
+        return new ChangeEvent(entityType, id, created ? Kind.CREATED : Kind.UPDATED, entity);
+    }
+
+    public static ChangeEvent deleted(Class<?> entityType, Integer id) {
+        return new ChangeEvent(entityType, id, Kind.DELETED, null);
+    }
+
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Object getEntity() {
+        return entity;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent{" +
+                "entityType=" + entityType.getSimpleName() +
+                ", id=" + id +
+                ", kind=" + kind +
+                '}';
+    }
+}
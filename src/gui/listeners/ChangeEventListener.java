@@ -0,0 +1,9 @@
+package gui.listeners;
+
+import java.util.List;
+
+public interface ChangeEventListener {
+    //chamado na thread da interface com todos os eventos acumulados desde a ultima entrega
+    void onChanges(List<ChangeEvent> events);
+
+}
@@ -0,0 +1,82 @@
+package gui.listeners;
+
+import javafx.application.Platform;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+//barramento de eventos da aplicacao: publica de qualquer thread, entrega em lote na thread da interface
+public class EventBus {
+
+    //referencias fracas: a tela que sai de cena nao fica presa aqui. O listener precisa ser
+    //um objeto mantido por outro lugar (o controller), nao uma lambda solta
+    private static final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private static final List<ChangeEvent> pending = new ArrayList<>();
+
+    private static boolean flushScheduled;
+
+    //assinar de novo o mesmo tipo nao duplica a entrega
+    public static void subscribe(Class<?> entityType, ChangeEventListener listener) {
+        for (Subscription sub : subscriptions) {
+            if (sub.entityType == entityType && sub.listener.get() == listener) {
+                return;
+            }
+        }
+        subscriptions.add(new Subscription(entityType, listener));
+    }
+
+    public static void unsubscribe(ChangeEventListener listener) {
+        subscriptions.removeIf(sub -> sub.listener.get() == null || sub.listener.get() == listener);
+    }
+
+    public static void publish(ChangeEvent event) {
+        synchronized (pending) {
+            pending.add(event);
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        Platform.runLater(EventBus::flush);
+    }
+
+    private static void flush() {
+        List<ChangeEvent> events;
+        synchronized (pending) {
+            events = new ArrayList<>(pending);
+            pending.clear();
+            flushScheduled = false;
+        }
+        List<Subscription> cleared = new ArrayList<>();
+        for (Subscription sub : subscriptions) {
+            ChangeEventListener listener = sub.listener.get();
+            if (listener == null) {
+                cleared.add(sub);
+                continue;
+            }
+            List<ChangeEvent> matching = new ArrayList<>();
+            for (ChangeEvent event : events) {
+                if (sub.entityType.isAssignableFrom(event.getEntityType())) {
+                    matching.add(event);
+                }
+            }
+            if (!matching.isEmpty()) {
+                listener.onChanges(matching);
+            }
+        }
+        subscriptions.removeAll(cleared);
+    }
+
+    private static class Subscription {
+        private final Class<?> entityType;
+        private final WeakReference<ChangeEventListener> listener;
+
+        Subscription(Class<?> entityType, ChangeEventListener listener) {
+            this.entityType = entityType;
+            this.listener = new WeakReference<>(listener);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package gui.util;
+
+import javafx.collections.ObservableList;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+//linhas de uma tabela ordenada com acesso por Id, para aplicar uma alteracao sem recarregar tudo
+public class IndexedRows<T> {
+
+    private final ObservableList<T> rows;
+    private final Function<T, Integer> idOf;
+    private final Comparator<T> order;
+    private final Map<Integer, T> rowsById = new HashMap<>();
+
+    public IndexedRows(ObservableList<T> rows, Function<T, Integer> idOf, Comparator<T> order) {
+        this.rows = rows;
+        this.idOf = idOf;
+        this.order = order;
+    }
+
+    public ObservableList<T> getRows() {
+        return rows;
+    }
+
+    public T get(Integer id) {
+        return rowsById.get(id);
+    }
+
+    public void setAll(Collection<T> list) {
+        rowsById.clear();
+        for (T obj : list) {
+            rowsById.put(idOf.apply(obj), obj);
+        }
+        rows.setAll(list);
+    }
+
+    public void addAll(Collection<T> list) {
+        for (T obj : list) {
+            rowsById.put(idOf.apply(obj), obj);
+        }
+        rows.addAll(list);
+    }
+
+    //visible: a linha passa no filtro atual; complete: nao ha mais paginas para carregar depois da ultima linha
+    public void upsert(T obj, boolean visible, boolean complete) {
+        T old = rowsById.get(idOf.apply(obj));
+        if (old != null) {
+            int index = indexOf(old);
+            if (visible && staysAt(index, obj)) {
+                rows.set(index, obj);
+                rowsById.put(idOf.apply(obj), obj);
+                return;
+            }
+            rows.remove(index);
+            rowsById.remove(idOf.apply(old));
+        }
+        if (!visible) {
+            return;
+        }
+        int position = insertionPoint(obj);
+        //depois da ultima linha carregada ela vai chegar com a proxima pagina
+        if (position == rows.size() && !complete) {
+            return;
+        }
+        rows.add(position, obj);
+        rowsById.put(idOf.apply(obj), obj);
+    }
+
+    public void remove(Integer id) {
+        T old = rowsById.remove(id);
+        if (old != null) {
+            rows.remove(indexOf(old));
+        }
+    }
+
+    private boolean staysAt(int index, T obj) {
+        return (index == 0 || order.compare(rows.get(index - 1), obj) < 0)
+                && (index == rows.size() - 1 || order.compare(obj, rows.get(index + 1)) < 0);
+    }
+
+    //busca binaria pela ordem da tabela, com busca linear se a ordenacao do banco for diferente
+    private int indexOf(T obj) {
+        int index = Collections.binarySearch(rows, obj, order);
+        if (index >= 0 && rows.get(index) == obj) {
+            return index;
+        }
+        return rows.indexOf(obj);
+    }
+
+    private int insertionPoint(T obj) {
+        int index = Collections.binarySearch(rows, obj, order);
+        return index >= 0 ? index : -index - 1;
+    }
+}
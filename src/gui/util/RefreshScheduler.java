@@ -0,0 +1,98 @@
+package gui.util;
+
+import db.DB;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.util.Duration;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+//junta os pedidos de atualizacao de uma tela dentro de uma janela e deixa no maximo uma consulta em andamento.
+//A consulta so termina quando o future dela completa: quem usa nao cancela o future (cancel completa na hora e a
+//consulta continuaria no banco), descarta o resultado que nao interessa mais
+public class RefreshScheduler {
+
+    private final PauseTransition window;
+    private final Supplier<CompletableFuture<?>> refresh;
+
+    private boolean scheduled;
+    private boolean running;
+    //pedido que chegou com a consulta em andamento, roda de novo quando ela terminar
+    private boolean dirty;
+
+    private long requests;
+    private long refreshes;
+
+    public RefreshScheduler(Supplier<CompletableFuture<?>> refresh) {
+        this(Duration.millis(DB.getIntProperty("ui.refreshWindowMs", 50)), refresh);
+    }
+
+    public RefreshScheduler(Duration window, Supplier<CompletableFuture<?>> refresh) {
+        this.window = new PauseTransition(window);
+        this.refresh = refresh;
+        this.window.setOnFinished(event -> fire());
+    }
+
+    //pode ser chamado de qualquer thread
+    public void request() {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(this::request);
+            return;
+        }
+        requests++;
+        if (running) {
+            dirty = true;
+            return;
+        }
+        //a janela nao reinicia a cada pedido, assim uma rajada longa ainda atualiza a tela
+        if (!scheduled) {
+            scheduled = true;
+            window.playFromStart();
+        }
+    }
+
+    //carga avulsa (por exemplo a proxima pagina): roda agora se nada estiver em andamento nem agendado,
+    //senao e ignorada e retorna false
+    public boolean runIfIdle(Supplier<CompletableFuture<?>> load) {
+        if (running || scheduled) {
+            return false;
+        }
+        start(load);
+        return true;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getRefreshes() {
+        return refreshes;
+    }
+
+    private void fire() {
+        scheduled = false;
+        refreshes++;
+        start(refresh);
+    }
+
+    private void start(Supplier<CompletableFuture<?>> load) {
+        running = true;
+        CompletableFuture<?> future;
+        try {
+            future = load.get();
+        } catch (RuntimeException e) {
+            running = false;
+            throw e;
+        }
+        future.whenComplete((result, error) -> Platform.runLater(this::finished));
+    }
+
+    private void finished() {
+        running = false;
+        if (dirty) {
+            dirty = false;
+            request();
+        }
+    }
+}
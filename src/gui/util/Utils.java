@@ -1,10 +1,14 @@
 package gui.util;
 
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
+import javafx.geometry.Orientation;
 import javafx.scene.Node;
 import javafx.scene.control.DatePicker;
+import javafx.scene.control.ScrollBar;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
 import javafx.stage.Stage;
 import javafx.stage.Window;
 import javafx.util.StringConverter;
@@ -14,12 +18,27 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
 
 public class Utils {
     public static Stage currentStage(ActionEvent event){
         return (Stage)((Node)event.getSource()).getScene().getWindow();
     }
 
+    //entrega o resultado de uma tarefa em segundo plano na thread da interface
+    public static <T> void onFxThread(CompletableFuture<T> future, BiConsumer<T, Throwable> action) {
+        future.whenComplete((result, error) -> {
+            Throwable cause = error;
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            Throwable unwrapped = cause;
+            Platform.runLater(() -> action.accept(result, unwrapped));
+        });
+    }
+
     public static Integer tryParsetoInt(String str){
         try {
             return Integer.parseInt(str);
@@ -64,8 +83,7 @@ public class Utils {
                     if (empty) {
                         setText(null);
                     } else {
-                        Locale.setDefault(Locale.US);
-                        setText(String.format("%."+decimalPlaces+"f", item));
+                        setText(String.format(Locale.US, "%."+decimalPlaces+"f", item));
                     }
                 }
             };
@@ -73,6 +91,21 @@ public class Utils {
         });
     }
 
+    //executa a acao quando a barra de rolagem vertical chega perto do fim
+    public static void onScrolledNearEnd(TableView<?> tableView, double threshold, Runnable action) {
+        tableView.skinProperty().addListener((obs, oldSkin, newSkin) -> {
+            for (Node node : tableView.lookupAll(".scroll-bar")) {
+                if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                    ScrollBar bar = (ScrollBar) node;
+                    bar.valueProperty().addListener((o, oldValue, newValue) -> {
+                        if (newValue.doubleValue() >= bar.getMax() * threshold) {
+                            action.run();
+                        }
+                    });
+                }
+            }
+        });
+    }
 
     public static void formatDatePicker(DatePicker datePicker, String format) {
         datePicker.setConverter(new StringConverter<LocalDate>() {
@@ -0,0 +1,102 @@
+package gui.util;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+//cada FXML e carregado uma vez so; a arvore de nos, o controller e o Stage do dialogo ficam guardados
+public class ViewRegistry {
+
+    private static final Map<String, View<?>> views = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public static <T> View<T> get(String path) throws IOException {
+        View<?> view = views.get(path);
+        if (view == null) {
+            view = load(path);
+            views.put(path, view);
+        }
+        return (View<T>) view;
+    }
+
+    //carrega na thread da interface quando ela estiver livre, um arquivo por vez para nao travar a tela.
+    //Os controllers mexem na cena principal ao inicializar, por isso nao carregam em outra thread
+    public static CompletableFuture<Void> preload(String... paths) {
+        List<CompletableFuture<Void>> loads = new ArrayList<>();
+        for (String path : paths) {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            loads.add(done);
+            Platform.runLater(() -> {
+                try {
+                    get(path);
+                    done.complete(null);
+                } catch (IOException | RuntimeException e) {
+                    done.completeExceptionally(e);
+                }
+            });
+        }
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0]));
+    }
+
+    public static boolean isLoaded(String path) {
+        return views.containsKey(path);
+    }
+
+    private static View<?> load(String path) throws IOException {
+        FXMLLoader loader = new FXMLLoader(ViewRegistry.class.getResource(path));
+        Parent root = loader.load();
+        return new View<>(root, loader.getController());
+    }
+
+    public static class View<T> {
+        private final Parent root;
+        private final T controller;
+        //os filhos sao movidos para a janela principal, entao a lista original fica guardada aqui
+        private final List<Node> children;
+        private Stage stage;
+
+        View(Parent root, T controller) {
+            this.root = root;
+            this.controller = controller;
+            this.children = Collections.unmodifiableList(new ArrayList<>(root.getChildrenUnmodifiable()));
+        }
+
+        public Parent getRoot() {
+            return root;
+        }
+
+        public T getController() {
+            return controller;
+        }
+
+        public List<Node> getChildren() {
+            return children;
+        }
+
+        //o Stage e criado na primeira vez e depois so mostrado de novo
+        public Stage getStage(String title, Window owner) {
+            if (stage == null) {
+                stage = new Stage();
+                stage.setTitle(title);
+                stage.setScene(new Scene(root));
+                stage.setResizable(false);
+                stage.initOwner(owner);
+                stage.initModality(Modality.WINDOW_MODAL);
+            }
+            return stage;
+        }
+    }
+}
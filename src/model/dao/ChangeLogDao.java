@@ -0,0 +1,14 @@
+package model.dao;
+
+import model.entities.ChangeLogEntry;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ChangeLogDao {
+
+    long findLastId();
+    List<ChangeLogEntry> findAfter(long afterId, int limit);
+    List<ChangeLogEntry> findByIds(Collection<Long> ids);
+
+}
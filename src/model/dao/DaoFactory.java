@@ -1,17 +1,55 @@
 package model.dao;
 
 import db.DB;
+import model.dao.impl.CachedDepartmentDao;
+import model.dao.impl.CachedSellerDao;
+import model.dao.impl.ChangeLogDaoJDBC;
 import model.dao.impl.DepartmentDaoJDBC;
 import model.dao.impl.SellerDaoJDBC;
 
 public class DaoFactory {
 
+    //compartilhado por todos os servicos para o cache valer na aplicacao inteira
+    private static CachedDepartmentDao departmentDao;
+
+    private static CachedSellerDao sellerDao;
+
     public static SellerDao createSellerDao(){
-        return new SellerDaoJDBC(DB.getConnection());
+        return getSellerCache();
+    }
+
+    public static synchronized CachedSellerDao getSellerCache() {
+        if (sellerDao == null) {
+            SellerDaoJDBC dao = new SellerDaoJDBC(DB.getPool());
+            dao.setBatchSize(DB.getIntProperty("batch.size", 500));
+            dao.setFetchSize(DB.getIntProperty("stream.fetchSize", 1000));
+            dao.setQueryTimeout(DB.getIntProperty("query.timeoutSec", 10));
+            sellerDao = new CachedSellerDao(dao,
+                    DB.getIntProperty("cache.seller.maxEntries", 10_000),
+                    DB.getIntProperty("cache.seller.maxBytes", 16 * 1024 * 1024));
+        }
+        return sellerDao;
     }
 
     public static DepartmentDao createDepartmentDao() {
-        return new DepartmentDaoJDBC(DB.getConnection());
+        return departmentCache();
+    }
+
+    public static CachedDepartmentDao getDepartmentCache() {
+        return departmentCache();
+    }
+
+    public static ChangeLogDao createChangeLogDao() {
+        return new ChangeLogDaoJDBC(DB.getPool());
+    }
+
+    private static synchronized CachedDepartmentDao departmentCache() {
+        if (departmentDao == null) {
+            DepartmentDaoJDBC dao = new DepartmentDaoJDBC(DB.getPool());
+            dao.setBatchSize(DB.getIntProperty("batch.size", 500));
+            departmentDao = new CachedDepartmentDao(dao, DB.getIntProperty("cache.department.ttlMs", 300_000));
+        }
+        return departmentDao;
     }
 
 
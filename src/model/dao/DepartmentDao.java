@@ -2,12 +2,15 @@ package model.dao;
 
 import model.entities.Department;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface DepartmentDao {
 
     void insert(Department obj);
     void update(Department obj);
+    void insertAll(Collection<Department> list);
+    void updateAll(Collection<Department> list);
     void deleteById(Integer id);
     Department findById(Integer id);
     List<Department> findall();
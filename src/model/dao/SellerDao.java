@@ -1,18 +1,32 @@
 package model.dao;
 
 import model.entities.Department;
+import model.entities.DepartmentStats;
 import model.entities.Seller;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface SellerDao {
 
     void insert(Seller obj);
     void update(Seller obj);
+    void insertAll(Collection<Seller> list);
+    void updateAll(Collection<Seller> list);
     void deleteById(Integer id);
     Seller findById(Integer id);
+    List<Seller> findByIds(Collection<Integer> ids);
     List<Seller> findall();
+    List<Seller> findPage(String afterName, Integer afterId, int limit);
+    List<Seller> findPageByPrefix(String prefix, String afterName, Integer afterId, int limit);
 
     List<Seller> findByDepartment(Department department);
 
+    void forEach(Consumer<Seller> action);
+
+    void forEachByDepartment(Department department, Consumer<Seller> action);
+
+    List<DepartmentStats> findDepartmentStats();
+
 }
@@ -0,0 +1,130 @@
+package model.dao.impl;
+
+import model.dao.DepartmentDao;
+import model.entities.Department;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//cache de leitura dos departamentos, limpo a cada escrita ou quando o ttl expira
+public class CachedDepartmentDao implements DepartmentDao {
+
+    private final DepartmentDao dao;
+    private final long ttlMillis;
+
+    private volatile Snapshot snapshot;
+
+    //incrementado a cada escrita, evita guardar uma leitura feita antes dela
+    private long version;
+
+    public CachedDepartmentDao(DepartmentDao dao, long ttlMillis) {
+        this.dao = dao;
+        this.ttlMillis = ttlMillis;
+    }
+
+    @Override
+    public Department findById(Integer id) {
+        Department dep = load().byId.get(id);
+        return dep != null ? dep : dao.findById(id);
+    }
+
+    @Override
+    public List<Department> findall() {
+        return new ArrayList<>(load().all);
+    }
+
+    public void invalidate() {
+        synchronized (this) {
+            version++;
+            snapshot = null;
+        }
+    }
+
+    @Override
+    public void insert(Department obj) {
+        try {
+            dao.insert(obj);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void update(Department obj) {
+        try {
+            dao.update(obj);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void insertAll(Collection<Department> list) {
+        try {
+            dao.insertAll(list);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void updateAll(Collection<Department> list) {
+        try {
+            dao.updateAll(list);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void deleteById(Integer id) {
+        try {
+            dao.deleteById(id);
+        } finally {
+            invalidate();
+        }
+    }
+
+    private Snapshot load() {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired(ttlMillis)) {
+            return current;
+        }
+        long startVersion;
+        synchronized (this) {
+            startVersion = version;
+        }
+
+        Snapshot loaded = new Snapshot(dao.findall());
+
+        synchronized (this) {
+            if (version == startVersion) {
+                snapshot = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    private static class Snapshot {
+        private final List<Department> all;
+        private final Map<Integer, Department> byId;
+        private final long loadedAt;
+
+        Snapshot(List<Department> list) {
+            this.all = Collections.unmodifiableList(list);
+            this.byId = new HashMap<>();
+            for (Department dep : list) {
+                byId.put(dep.getId(), dep);
+            }
+            this.loadedAt = System.currentTimeMillis();
+        }
+
+        boolean isExpired(long ttlMillis) {
+            return ttlMillis >= 0 && System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package model.dao.impl;
+
+import model.dao.SellerDao;
+import model.entities.Department;
+import model.entities.DepartmentStats;
+import model.entities.Seller;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+//mapa de identidade dos vendedores por Id, limitado por quantidade e por tamanho aproximado (LRU).
+//So findById conta acertos/faltas e acrescenta entradas; as listas reaproveitam as entradas ja conhecidas
+public class CachedSellerDao implements SellerDao {
+
+    private final SellerDao dao;
+    private final int maxEntries;
+    private final long maxBytes;
+
+    private final LinkedHashMap<Integer, Seller> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long estimatedBytes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public CachedSellerDao(SellerDao dao, int maxEntries, long maxBytes) {
+        this.dao = dao;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public Seller findById(Integer id) {
+        synchronized (this) {
+            Seller cached = entries.get(id);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+        Seller obj = dao.findById(id);
+        return obj == null ? null : remember(obj);
+    }
+
+    //nao consulta o mapa, quem chama quer o estado do banco (por exemplo a sincronizacao)
+    @Override
+    public List<Seller> findByIds(Collection<Integer> ids) {
+        return canonicalAll(dao.findByIds(ids));
+    }
+
+    @Override
+    public List<Seller> findall() {
+        return canonicalAll(dao.findall());
+    }
+
+    @Override
+    public List<Seller> findPage(String afterName, Integer afterId, int limit) {
+        return canonicalAll(dao.findPage(afterName, afterId, limit));
+    }
+
+    @Override
+    public List<Seller> findPageByPrefix(String prefix, String afterName, Integer afterId, int limit) {
+        return canonicalAll(dao.findPageByPrefix(prefix, afterName, afterId, limit));
+    }
+
+    @Override
+    public List<Seller> findByDepartment(Department department) {
+        return canonicalAll(dao.findByDepartment(department));
+    }
+
+    //streams nao passam pelo cache para nao expulsar tudo o que esta nele
+    @Override
+    public void forEach(Consumer<Seller> action) {
+        dao.forEach(action);
+    }
+
+    @Override
+    public void forEachByDepartment(Department department, Consumer<Seller> action) {
+        dao.forEachByDepartment(department, action);
+    }
+
+    @Override
+    public List<DepartmentStats> findDepartmentStats() {
+        return dao.findDepartmentStats();
+    }
+
+    @Override
+    public void insert(Seller obj) {
+        dao.insert(obj);
+    }
+
+    @Override
+    public void insertAll(Collection<Seller> list) {
+        dao.insertAll(list);
+    }
+
+    @Override
+    public void update(Seller obj) {
+        try {
+            dao.update(obj);
+        } finally {
+            invalidate(obj.getId());
+        }
+    }
+
+    @Override
+    public void updateAll(Collection<Seller> list) {
+        try {
+            dao.updateAll(list);
+        } finally {
+            for (Seller obj : list) {
+                invalidate(obj.getId());
+            }
+        }
+    }
+
+    @Override
+    public void deleteById(Integer id) {
+        try {
+            dao.deleteById(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    public synchronized void invalidate(Integer id) {
+        Seller removed = entries.remove(id);
+        if (removed != null) {
+            estimatedBytes -= estimateSize(removed);
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        estimatedBytes = 0;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    //paginas e listas inteiras nao entram no mapa (expulsariam tudo); so trocam pela instancia conhecida
+    //as linhas que nao mudaram e atualizam as que mudaram
+    private synchronized List<Seller> canonicalAll(List<Seller> list) {
+        for (int i = 0; i < list.size(); i++) {
+            Seller obj = list.get(i);
+            Seller cached = entries.get(obj.getId());
+            if (cached == null) {
+                continue;
+            }
+            if (sameState(cached, obj)) {
+                list.set(i, cached);
+            } else {
+                replace(cached, obj);
+            }
+        }
+        evictIfNeeded();
+        return list;
+    }
+
+    //devolve a instancia ja conhecida se a linha nao mudou, senao guarda a nova
+    private synchronized Seller remember(Seller obj) {
+        Seller cached = entries.get(obj.getId());
+        if (cached != null && sameState(cached, obj)) {
+            return cached;
+        }
+        replace(cached, obj);
+        evictIfNeeded();
+        return obj;
+    }
+
+    private void replace(Seller cached, Seller obj) {
+        if (cached != null) {
+            estimatedBytes -= estimateSize(cached);
+        }
+        entries.put(obj.getId(), obj);
+        estimatedBytes += estimateSize(obj);
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<Integer, Seller>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || estimatedBytes > maxBytes) && it.hasNext()) {
+            Seller eldest = it.next().getValue();
+            it.remove();
+            estimatedBytes -= estimateSize(eldest);
+            evictions++;
+        }
+    }
+
+    private static boolean sameState(Seller a, Seller b) {
+        return Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getEmail(), b.getEmail())
+                && a.hasBirthDate() == b.hasBirthDate()
+                && (!a.hasBirthDate() || a.getBirthDateMillis() == b.getBirthDateMillis())
+                && Objects.equals(a.getBaseSalary(), b.getBaseSalary())
+                && Objects.equals(a.getDepartment(), b.getDepartment())
+                && (a.getDepartment() == null
+                    || Objects.equals(a.getDepartment().getName(), b.getDepartment().getName()));
+    }
+
+    //objeto + Integer + Double + Date + duas Strings (cabecalho, array e 2 bytes por char) + entrada do mapa
+    private static long estimateSize(Seller obj) {
+        long size = 40 + 16 + 16 + 24 + 48;
+        size += stringSize(obj.getName());
+        size += stringSize(obj.getEmail());
+        return size;
+    }
+
+    private static long stringSize(String str) {
+        return str == null ? 0 : 40 + 2L * str.length();
+    }
+}
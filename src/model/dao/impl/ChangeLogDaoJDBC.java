@@ -0,0 +1,113 @@
+package model.dao.impl;
+
+import db.ConnectionPool;
+import db.DB;
+import db.DbException;
+import db.PooledConnection;
+import model.dao.ChangeLogDao;
+import model.entities.ChangeLogEntry;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class ChangeLogDaoJDBC implements ChangeLogDao {
+
+    private ConnectionPool pool;
+
+    public ChangeLogDaoJDBC(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public long findLastId() {
+        PooledConnection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = pool.borrow();
+            st = conn.prepareStatement(
+                    "SELECT MAX(Id) FROM change_log");
+            rs = st.executeQuery();
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+        catch (SQLException e) {
+            throw new DbException(e.getMessage());
+        }
+        finally {
+            DB.closeResulSet(rs);
+            DB.releaseConnection(conn);
+        }
+    }
+
+    //usa a chave primaria: o custo e proporcional ao numero de alteracoes, nao ao tamanho das tabelas
+    @Override
+    public List<ChangeLogEntry> findAfter(long afterId, int limit) {
+        PooledConnection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = pool.borrow();
+            st = conn.prepareStatement(
+                    "SELECT Id, EntityType, EntityId, Kind FROM change_log " +
+                            "WHERE Id > ? ORDER BY Id LIMIT ?");
+            st.setLong(1, afterId);
+            st.setInt(2, limit);
+            rs = st.executeQuery();
+            return instantiateEntries(rs);
+        }
+        catch (SQLException e) {
+            throw new DbException(e.getMessage());
+        }
+        finally {
+            DB.closeResulSet(rs);
+            DB.releaseConnection(conn);
+        }
+    }
+
+    //linhas de Ids que estavam faltando na sequencia; poucas, entao um statement sem cache basta
+    @Override
+    public List<ChangeLogEntry> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        PooledConnection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = pool.borrow();
+            StringBuilder sql = new StringBuilder(
+                    "SELECT Id, EntityType, EntityId, Kind FROM change_log WHERE Id IN (?");
+            for (int i = 1; i < ids.size(); i++) {
+                sql.append(",?");
+            }
+            sql.append(") ORDER BY Id");
+            st = conn.getConnection().prepareStatement(sql.toString());
+            int index = 1;
+            for (Long id : ids) {
+                st.setLong(index++, id);
+            }
+            rs = st.executeQuery();
+            return instantiateEntries(rs);
+        }
+        catch (SQLException e) {
+            throw new DbException(e.getMessage());
+        }
+        finally {
+            DB.closeResulSet(rs);
+            DB.closeStatement(st);
+            DB.releaseConnection(conn);
+        }
+    }
+
+    private List<ChangeLogEntry> instantiateEntries(ResultSet rs) throws SQLException {
+        List<ChangeLogEntry> list = new ArrayList<>();
+        while (rs.next()) {
+            list.add(new ChangeLogEntry(rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getString(4)));
+        }
+        return list;
+    }
+}
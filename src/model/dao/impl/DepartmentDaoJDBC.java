@@ -1,36 +1,57 @@
 package model.dao.impl;
 
+import db.ConnectionPool;
 import db.DB;
 import db.DbException;
 import db.DbIntegrityExeption;
+import db.PooledConnection;
 import model.dao.DepartmentDao;
 import model.entities.Department;
+import model.entities.DepartmentRegistry;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public class DepartmentDaoJDBC implements DepartmentDao {
-    private Connection conn;
 
-    public DepartmentDaoJDBC(Connection conn) {
-        this.conn = conn;
+    private static final String INSERT_SQL =
+            "INSERT INTO department " +
+                    "(Name) " +
+                    "VALUES " +
+                    "(?)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE department " +
+                    "SET Name = ? " +
+                    "WHERE Id = ?";
+
+    private ConnectionPool pool;
+
+    private int batchSize = 500;
+
+    public DepartmentDaoJDBC(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
     }
 
     @Override
     public Department findById(Integer id) {
+        PooledConnection conn = null;
         PreparedStatement st = null;
         ResultSet rs = null;
         try {
+            conn = pool.borrow();
             st = conn.prepareStatement(
                     "SELECT * FROM department WHERE Id = ?");
             st.setInt(1, id);
             rs = st.executeQuery();
             if (rs.next()) {
-                Department obj = new Department();
-                obj.setId(rs.getInt("Id"));
-                obj.setName(rs.getString("Name"));
-                return obj;
+                return new DepartmentRowMapper(rs).map(rs);
             }
             return null;
         }
@@ -38,27 +59,27 @@ public class DepartmentDaoJDBC implements DepartmentDao {
             throw new DbException(e.getMessage());
         }
         finally {
-            DB.closeStatement(st);
             DB.closeResulSet(rs);
+            DB.releaseConnection(conn);
         }
     }
 
     @Override
     public List<Department> findall() {
+        PooledConnection conn = null;
         PreparedStatement st = null;
         ResultSet rs = null;
         try {
+            conn = pool.borrow();
             st = conn.prepareStatement(
                     "SELECT * FROM department ORDER BY Name");
             rs = st.executeQuery();
 
             List<Department> list = new ArrayList<>();
+            DepartmentRowMapper mapper = new DepartmentRowMapper(rs);
 
             while (rs.next()) {
-                Department obj = new Department();
-                obj.setId(rs.getInt("Id"));
-                obj.setName(rs.getString("Name"));
-                list.add(obj);
+                list.add(mapper.map(rs));
             }
             return list;
         }
@@ -66,21 +87,18 @@ public class DepartmentDaoJDBC implements DepartmentDao {
             throw new DbException(e.getMessage());
         }
         finally {
-            DB.closeStatement(st);
             DB.closeResulSet(rs);
+            DB.releaseConnection(conn);
         }
     }
 
     @Override
     public void insert(Department obj) {
+        PooledConnection conn = null;
         PreparedStatement st = null;
         try {
-            st = conn.prepareStatement(
-                    "INSERT INTO department " +
-                            "(Name) " +
-                            "VALUES " +
-                            "(?)",
-                    Statement.RETURN_GENERATED_KEYS);
+            conn = pool.borrow();
+            st = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
 
             st.setString(1, obj.getName());
 
@@ -92,6 +110,7 @@ public class DepartmentDaoJDBC implements DepartmentDao {
                     int id = rs.getInt(1);
                     obj.setId(id);
                 }
+                DB.closeResulSet(rs);
             }
             else {
                 throw new DbException("Unexpected error! No rows affected!");
@@ -101,48 +120,157 @@ public class DepartmentDaoJDBC implements DepartmentDao {
             throw new DbException(e.getMessage());
         }
         finally {
-            DB.closeStatement(st);
+            DB.releaseConnection(conn);
         }
     }
 
     @Override
     public void update(Department obj) {
+        PooledConnection conn = null;
         PreparedStatement st = null;
         try {
-            st = conn.prepareStatement(
-                    "UPDATE department " +
-                            "SET Name = ? " +
-                            "WHERE Id = ?");
+            conn = pool.borrow();
+            st = conn.prepareStatement(UPDATE_SQL);
 
             st.setString(1, obj.getName());
             st.setInt(2, obj.getId());
 
             st.executeUpdate();
+            //renomeado: as proximas leituras ja recebem a instancia com o nome novo
+            DepartmentRegistry.intern(obj);
+        }
+        catch (SQLException e) {
+            throw new DbException(e.getMessage());
+        }
+        finally {
+            DB.releaseConnection(conn);
+        }
+    }
+
+    @Override
+    public void insertAll(Collection<Department> list) {
+        if (list.isEmpty()) {
+            return;
+        }
+        PooledConnection conn = null;
+        PreparedStatement st = null;
+        try {
+            conn = pool.borrow();
+            conn.getConnection().setAutoCommit(false);
+            st = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+
+            List<Department> chunk = new ArrayList<>(Math.min(batchSize, list.size()));
+            for (Department obj : list) {
+                st.setString(1, obj.getName());
+                st.addBatch();
+                chunk.add(obj);
+                if (chunk.size() == batchSize) {
+                    executeInsertBatch(st, chunk);
+                    conn.getConnection().commit();
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                executeInsertBatch(st, chunk);
+                conn.getConnection().commit();
+            }
+        }
+        catch (SQLException e) {
+            DB.rollback(conn);
+            throw new DbException(e.getMessage());
+        }
+        catch (RuntimeException e) {
+            DB.rollback(conn);
+            throw e;
+        }
+        finally {
+            DB.clearBatch(st);
+            DB.restoreAutoCommit(conn);
+            DB.releaseConnection(conn);
+        }
+    }
+
+    private void executeInsertBatch(PreparedStatement st, List<Department> chunk) throws SQLException {
+        st.executeBatch();
+        ResultSet rs = st.getGeneratedKeys();
+        try {
+            for (Department obj : chunk) {
+                if (!rs.next()) {
+                    throw new DbException("Missing generated key for department " + obj.getName());
+                }
+                obj.setId(rs.getInt(1));
+            }
+        }
+        finally {
+            DB.closeResulSet(rs);
+        }
+    }
+
+    @Override
+    public void updateAll(Collection<Department> list) {
+        if (list.isEmpty()) {
+            return;
+        }
+        PooledConnection conn = null;
+        PreparedStatement st = null;
+        try {
+            conn = pool.borrow();
+            conn.getConnection().setAutoCommit(false);
+            st = conn.prepareStatement(UPDATE_SQL);
+
+            int pending = 0;
+            for (Department obj : list) {
+                st.setString(1, obj.getName());
+                st.setInt(2, obj.getId());
+                st.addBatch();
+                if (++pending == batchSize) {
+                    st.executeBatch();
+                    conn.getConnection().commit();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                st.executeBatch();
+                conn.getConnection().commit();
+            }
+            for (Department obj : list) {
+                DepartmentRegistry.intern(obj);
+            }
         }
         catch (SQLException e) {
+            DB.rollback(conn);
             throw new DbException(e.getMessage());
         }
+        catch (RuntimeException e) {
+            DB.rollback(conn);
+            throw e;
+        }
         finally {
-            DB.closeStatement(st);
+            DB.clearBatch(st);
+            DB.restoreAutoCommit(conn);
+            DB.releaseConnection(conn);
         }
     }
 
     @Override
     public void deleteById(Integer id) {
+        PooledConnection conn = null;
         PreparedStatement st = null;
         try {
+            conn = pool.borrow();
             st = conn.prepareStatement(
                     "DELETE FROM department WHERE Id = ?");
 
             st.setInt(1, id);
 
             st.executeUpdate();
+            DepartmentRegistry.remove(id);
         }
         catch (SQLException e) {
             throw new DbIntegrityExeption(e.getMessage());
         }
         finally {
-            DB.closeStatement(st);
+            DB.releaseConnection(conn);
         }
     }
 }
@@ -0,0 +1,24 @@
+package model.dao.impl;
+
+import model.entities.Department;
+import model.entities.DepartmentRegistry;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+class DepartmentRowMapper {
+
+    private final int id;
+    private final int name;
+
+    DepartmentRowMapper(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        this.id = SellerRowMapper.indexOf(meta, "Id");
+        this.name = SellerRowMapper.indexOf(meta, "Name");
+    }
+
+    Department map(ResultSet rs) throws SQLException {
+        return DepartmentRegistry.intern(rs.getInt(id), rs.getString(name));
+    }
+}
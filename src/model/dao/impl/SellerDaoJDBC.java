@@ -1,90 +1,227 @@
 package model.dao.impl;
 
+import db.ConnectionPool;
 import db.DB;
 import db.DbException;
+import db.PooledConnection;
 import model.dao.SellerDao;
 import model.entities.Department;
+import model.entities.DepartmentRegistry;
+import model.entities.DepartmentStats;
 import model.entities.Seller;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
 public class SellerDaoJDBC implements SellerDao {
 
-    private Connection conn;
+    private static final String INSERT_SQL =
+            "INSERT INTO seller " +
+                    "(Name, Email, BirthDate, BaseSalary, DepartmentId) " +
+                    "VALUES " +
+                    "(?, ?, ?, ?, ?)";
 
-    public SellerDaoJDBC(Connection conn) {
-        this.conn = conn;
+    private static final String UPDATE_SQL =
+            "UPDATE seller "+
+                    "SET Name = ?, Email = ?, BirthDate = ?, BaseSalary = ?, DepartmentId = ? "+
+                    "WHERE Id = ?";
+
+    private ConnectionPool pool;
+
+    private static final int MAX_IN_PARAMETERS = 512;
+
+    private int batchSize = 500;
+
+    private int fetchSize = 1000;
+
+    //limite em segundos das consultas de pagina e de busca, 0 sem limite. Cancelar o future da busca na tela
+    //nao para a consulta no servidor, o timeout limita quanto tempo ela ainda ocupa a conexao
+    private int queryTimeout = 10;
+
+    public SellerDaoJDBC(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public void setQueryTimeout(int queryTimeout) {
+        this.queryTimeout = Math.max(0, queryTimeout);
     }
 
 
     @Override
     public void insert(Seller obj) {
 
+        PooledConnection conn = null;
         PreparedStatement st = null;
+        ResultSet rs = null;
         try {
-            st = conn.prepareStatement(
-                    "INSERT INTO seller " +
-                            "(Name, Email, BirthDate, BaseSalary, DepartmentId) " +
-                            "VALUES " +
-                            "(?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
-            st.setString(1, obj.getName());
-            st.setString(2, obj.getEmail());
-            st.setDate(3, new java.sql.Date(obj.getBirthDate().getTime()));
-            st.setDouble(4, obj.getBaseSalary());
-            st.setInt(5, obj.getDepartment().getId());
+            conn = pool.borrow();
+            st = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+            setSellerParameters(st, obj);
 
             int rowsAfected = st.executeUpdate();
 
             if (rowsAfected > 0) {
-                ResultSet rs = st.getGeneratedKeys();
+                rs = st.getGeneratedKeys();
                 if (rs.next()) {
                     int id = rs.getInt(1);
                     obj.setId(id);
                 }
-                DB.closeResulSet(rs);
             } else {
                 throw new DbException("Nenhuma linha foi afetada");
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw new DbException(e.getMessage());
         }finally {
-            DB.closeStatement(st);
+            DB.closeResulSet(rs);
+            DB.releaseConnection(conn);
         }
     }
 
     @Override
     public void update(Seller obj) {
+        PooledConnection conn = null;
         PreparedStatement st = null;
         try {
-            st = conn.prepareStatement(
-                    "UPDATE seller "+
-                    "SET Name = ?, Email = ?, BirthDate = ?, BaseSalary = ?, DepartmentId = ? "+
-                    "WHERE Id = ?");
-            st.setString(1, obj.getName());
-            st.setString(2, obj.getEmail());
-            st.setDate(3, new java.sql.Date(obj.getBirthDate().getTime()));
-            st.setDouble(4, obj.getBaseSalary());
-            st.setInt(5, obj.getDepartment().getId());
+            conn = pool.borrow();
+            st = conn.prepareStatement(UPDATE_SQL);
+            setSellerParameters(st, obj);
             st.setInt(6, obj.getId());
 
-            st.executeUpdate();
+            //vendedor apagado por outro usuario: o indice e as estatisticas nao podem receber a alteracao
+            if (st.executeUpdate() == 0) {
+                throw new DbException("Nenhuma linha foi afetada");
+            }
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw new DbException(e.getMessage());
         }finally {
-            DB.closeStatement(st);
+            DB.releaseConnection(conn);
         }
 
     }
 
+    @Override
+    public void insertAll(Collection<Seller> list) {
+        if (list.isEmpty()) {
+            return;
+        }
+        PooledConnection conn = null;
+        PreparedStatement st = null;
+        try {
+            conn = pool.borrow();
+            conn.getConnection().setAutoCommit(false);
+            st = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+
+            List<Seller> chunk = new ArrayList<>(Math.min(batchSize, list.size()));
+            for (Seller obj : list) {
+                setSellerParameters(st, obj);
+                st.addBatch();
+                chunk.add(obj);
+                if (chunk.size() == batchSize) {
+                    executeInsertBatch(st, chunk);
+                    conn.getConnection().commit();
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                executeInsertBatch(st, chunk);
+                conn.getConnection().commit();
+            }
+        } catch (SQLException e) {
+            DB.rollback(conn);
+            throw new DbException(e.getMessage());
+        } catch (RuntimeException e) {
+            DB.rollback(conn);
+            throw e;
+        } finally {
+            DB.clearBatch(st);
+            DB.restoreAutoCommit(conn);
+            DB.releaseConnection(conn);
+        }
+    }
+
+    //as chaves geradas voltam na mesma ordem do lote
+    private void executeInsertBatch(PreparedStatement st, List<Seller> chunk) throws SQLException {
+        st.executeBatch();
+        ResultSet rs = st.getGeneratedKeys();
+        try {
+            for (Seller obj : chunk) {
+                if (!rs.next()) {
+                    throw new DbException("Missing generated key for seller " + obj.getName());
+                }
+                obj.setId(rs.getInt(1));
+            }
+        } finally {
+            DB.closeResulSet(rs);
+        }
+    }
+
+    @Override
+    public void updateAll(Collection<Seller> list) {
+        if (list.isEmpty()) {
+            return;
+        }
+        PooledConnection conn = null;
+        PreparedStatement st = null;
+        try {
+            conn = pool.borrow();
+            conn.getConnection().setAutoCommit(false);
+            st = conn.prepareStatement(UPDATE_SQL);
+
+            int pending = 0;
+            for (Seller obj : list) {
+                setSellerParameters(st, obj);
+                st.setInt(6, obj.getId());
+                st.addBatch();
+                if (++pending == batchSize) {
+                    st.executeBatch();
+                    conn.getConnection().commit();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                st.executeBatch();
+                conn.getConnection().commit();
+            }
+        } catch (SQLException e) {
+            DB.rollback(conn);
+            throw new DbException(e.getMessage());
+        } catch (RuntimeException e) {
+            DB.rollback(conn);
+            throw e;
+        } finally {
+            DB.clearBatch(st);
+            DB.restoreAutoCommit(conn);
+            DB.releaseConnection(conn);
+        }
+    }
+
+    private void setSellerParameters(PreparedStatement st, Seller obj) throws SQLException {
+        st.setString(1, obj.getName());
+        st.setString(2, obj.getEmail());
+        st.setDate(3, new java.sql.Date(obj.getBirthDate().getTime()));
+        st.setDouble(4, obj.getBaseSalary());
+        st.setInt(5, obj.getDepartment().getId());
+    }
+
     @Override
     public void deleteById(Integer id) {
+        PooledConnection conn = null;
         PreparedStatement st = null;
 
         try {
+            conn = pool.borrow();
             st = conn.prepareStatement("DELETE FROM seller WHERE ID = ?");
 
             st.setInt(1, id);
@@ -98,7 +235,7 @@ public class SellerDaoJDBC implements SellerDao {
         }catch (SQLException e){
             throw new DbException(e.getMessage());
         }finally {
-            DB.closeStatement(st);
+            DB.releaseConnection(conn);
         }
 
 
@@ -107,9 +244,11 @@ public class SellerDaoJDBC implements SellerDao {
 
     @Override
     public Seller findById(Integer id) {
+        PooledConnection conn = null;
         PreparedStatement st = null;
         ResultSet rs = null;
         try {
+            conn = pool.borrow();
             st = conn.prepareStatement(
                     "SELECT seller.*,department.Name as DepName " +
                             "FROM seller INNER JOIN department " +
@@ -119,9 +258,7 @@ public class SellerDaoJDBC implements SellerDao {
             st.setInt(1, id);
             rs = st.executeQuery();
             if (rs.next()) {
-                Department dep = instantiateDepartment(rs);
-                Seller obj = instantiateSeleer(rs, dep);
-                return obj;
+                return new SellerRowMapper(rs).map(rs);
             } else {
                 return null;
             }
@@ -129,37 +266,74 @@ public class SellerDaoJDBC implements SellerDao {
         } catch (SQLException e) {
             throw new DbException(e.getMessage());
         } finally {
-            DB.closeStatement(st);
             DB.closeResulSet(rs);
+            DB.releaseConnection(conn);
         }
 
     }
 
-    private Seller instantiateSeleer(ResultSet rs, Department dep) throws SQLException {
-        Seller obj = new Seller();
-        obj.setId(rs.getInt("Id"));
-        obj.setName(rs.getString("Name"));
-        obj.setEmail(rs.getString("Email"));
-        obj.setBaseSalary(rs.getDouble("BaseSalary"));
-        obj.setBirthDate(new java.util.Date(rs.getTimestamp("BirthDate").getTime()));
-        obj.setDepartment(dep);
-        return obj;
-    }
+    //uma consulta IN por bloco; a lista de parametros e completada ate uma potencia de 2 repetindo o ultimo id,
+    //assim poucos textos de SQL diferentes vao para o cache de statements
+    @Override
+    public List<Seller> findByIds(Collection<Integer> ids) {
+        List<Seller> list = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return list;
+        }
+        List<Integer> pending = new ArrayList<>(ids);
+        PooledConnection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = pool.borrow();
+            for (int from = 0; from < pending.size(); from += MAX_IN_PARAMETERS) {
+                List<Integer> chunk = pending.subList(from, Math.min(from + MAX_IN_PARAMETERS, pending.size()));
+                int size = Math.min(MAX_IN_PARAMETERS, Integer.highestOneBit(chunk.size() * 2 - 1));
+                StringBuilder sql = new StringBuilder(
+                        "SELECT seller.*,department.Name as DepName " +
+                                "FROM seller INNER JOIN department " +
+                                "ON seller.DepartmentId = department.Id " +
+                                "WHERE seller.Id IN (?");
+                for (int i = 1; i < size; i++) {
+                    sql.append(",?");
+                }
+                sql.append(')');
+                st = conn.prepareStatement(sql.toString());
+                for (int i = 0; i < size; i++) {
+                    st.setInt(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                }
+                rs = st.executeQuery();
+                list.addAll(instantiateSellers(rs));
+                DB.closeResulSet(rs);
+                rs = null;
+            }
+            return list;
 
-    private Department instantiateDepartment(ResultSet rs) throws SQLException {
-        Department dep = new Department();
+        } catch (SQLException e) {
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeResulSet(rs);
+            DB.releaseConnection(conn);
+        }
+    }
 
-        dep.setId(rs.getInt("DepartmentId"));
-        dep.setName(rs.getString("DepName"));
+    private List<Seller> instantiateSellers(ResultSet rs) throws SQLException {
+        List<Seller> list = new ArrayList<>();
+        SellerRowMapper mapper = new SellerRowMapper(rs);
 
-        return dep;
+        while (rs.next()) {
+            list.add(mapper.map(rs));
+        }
+        return list;
     }
 
     @Override
     public List<Seller> findall() {
+        PooledConnection conn = null;
         PreparedStatement st = null;
         ResultSet rs = null;
         try {
+            conn = pool.borrow();
             st = conn.prepareStatement(
                     "SELECT seller.*,department.Name as DepName " +
                             "FROM seller INNER JOIN department " +
@@ -168,36 +342,246 @@ public class SellerDaoJDBC implements SellerDao {
 
             rs = st.executeQuery();
 
-            List<Seller> list = new ArrayList<>();
-            Map<Integer, Department> map = new HashMap<>();
+            return instantiateSellers(rs);
+
 
+        } catch (SQLException e) {
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeResulSet(rs);
+            DB.releaseConnection(conn);
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<Seller> action) {
+        stream("SELECT seller.*,department.Name as DepName " +
+                "FROM seller INNER JOIN department " +
+                "ON seller.DepartmentId = department.Id " +
+                "ORDER BY Name", null, action);
+    }
+
+    @Override
+    public void forEachByDepartment(Department department, Consumer<Seller> action) {
+        stream("SELECT seller.*,department.Name as DepName " +
+                "FROM seller INNER JOIN department " +
+                "ON seller.DepartmentId = department.Id " +
+                "WHERE DepartmentId = ? " +
+                "ORDER BY Name", department.getId(), action);
+    }
+
+    //le linha a linha com cursor somente leitura, sem montar a lista inteira. O cursor do servidor fica aberto
+    //enquanto action roda (exportacao, montagem do indice), por isso usa uma conexao propria e nao uma do pool
+    private void stream(String sql, Integer departmentId, Consumer<Seller> action) {
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = pool.openDedicated();
+            st = conn.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            st.setFetchSize(fetchSize);
+            if (departmentId != null) {
+                st.setInt(1, departmentId);
+            }
+
+            rs = st.executeQuery();
+
+            SellerRowMapper mapper = new SellerRowMapper(rs);
             while (rs.next()) {
+                action.accept(mapper.map(rs));
+            }
 
-                Department dep = map.get(rs.getInt("DepartmentId"));
+        } catch (SQLException e) {
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeResulSet(rs);
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+        }
+    }
 
-                if (dep == null) {
-                    dep = instantiateDepartment(rs);
-                    map.put(rs.getInt("DepartmentId"), dep);
+    //paginacao por chave (Name, Id): a proxima pagina comeca depois da ultima linha lida
+    @Override
+    public List<Seller> findPage(String afterName, Integer afterId, int limit) {
+        PooledConnection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = pool.borrow();
+            if (afterName == null || afterId == null) {
+                st = conn.prepareStatement(
+                        "SELECT seller.*,department.Name as DepName " +
+                                "FROM seller INNER JOIN department " +
+                                "ON seller.DepartmentId = department.Id " +
+                                "ORDER BY seller.Name, seller.Id " +
+                                "LIMIT ?");
+                st.setInt(1, limit);
+            } else {
+                st = conn.prepareStatement(
+                        "SELECT seller.*,department.Name as DepName " +
+                                "FROM seller INNER JOIN department " +
+                                "ON seller.DepartmentId = department.Id " +
+                                "WHERE seller.Name > ? OR (seller.Name = ? AND seller.Id > ?) " +
+                                "ORDER BY seller.Name, seller.Id " +
+                                "LIMIT ?");
+                st.setString(1, afterName);
+                st.setString(2, afterName);
+                st.setInt(3, afterId);
+                st.setInt(4, limit);
+            }
+
+            st.setQueryTimeout(queryTimeout);
+            rs = st.executeQuery();
+
+            return instantiateSellers(rs);
+
+        } catch (SQLException e) {
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeResulSet(rs);
+            DB.releaseConnection(conn);
+        }
+    }
+
+    //busca por prefixo do nome ou do email, uma consulta por indice, paginada pela mesma chave (Name, Id)
+    @Override
+    public List<Seller> findPageByPrefix(String prefix, String afterName, Integer afterId, int limit) {
+        PooledConnection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = pool.borrow();
+            String pattern = escapeLike(prefix) + "%";
+            if (afterName == null || afterId == null) {
+                st = conn.prepareStatement(
+                        "(SELECT seller.*,department.Name as DepName " +
+                                "FROM seller INNER JOIN department " +
+                                "ON seller.DepartmentId = department.Id " +
+                                "WHERE seller.Name LIKE ? " +
+                                "ORDER BY seller.Name, seller.Id LIMIT ?) " +
+                                "UNION " +
+                                "(SELECT seller.*,department.Name as DepName " +
+                                "FROM seller INNER JOIN department " +
+                                "ON seller.DepartmentId = department.Id " +
+                                "WHERE seller.Email LIKE ? " +
+                                "ORDER BY seller.Name, seller.Id LIMIT ?) " +
+                                "ORDER BY Name, Id LIMIT ?");
+                st.setString(1, pattern);
+                st.setInt(2, limit);
+                st.setString(3, pattern);
+                st.setInt(4, limit);
+                st.setInt(5, limit);
+            } else {
+                st = conn.prepareStatement(
+                        "(SELECT seller.*,department.Name as DepName " +
+                                "FROM seller INNER JOIN department " +
+                                "ON seller.DepartmentId = department.Id " +
+                                "WHERE seller.Name LIKE ? " +
+                                "AND (seller.Name > ? OR (seller.Name = ? AND seller.Id > ?)) " +
+                                "ORDER BY seller.Name, seller.Id LIMIT ?) " +
+                                "UNION " +
+                                "(SELECT seller.*,department.Name as DepName " +
+                                "FROM seller INNER JOIN department " +
+                                "ON seller.DepartmentId = department.Id " +
+                                "WHERE seller.Email LIKE ? " +
+                                "AND (seller.Name > ? OR (seller.Name = ? AND seller.Id > ?)) " +
+                                "ORDER BY seller.Name, seller.Id LIMIT ?) " +
+                                "ORDER BY Name, Id LIMIT ?");
+                for (int branch = 0; branch < 2; branch++) {
+                    int base = branch * 5;
+                    st.setString(base + 1, pattern);
+                    st.setString(base + 2, afterName);
+                    st.setString(base + 3, afterName);
+                    st.setInt(base + 4, afterId);
+                    st.setInt(base + 5, limit);
                 }
-                Seller obj = instantiateSeleer(rs, dep);
-                list.add(obj);
+                st.setInt(11, limit);
             }
-            return list;
 
+            st.setQueryTimeout(queryTimeout);
+            rs = st.executeQuery();
+
+            return instantiateSellers(rs);
 
         } catch (SQLException e) {
             throw new DbException(e.getMessage());
         } finally {
-            DB.closeStatement(st);
             DB.closeResulSet(rs);
+            DB.releaseConnection(conn);
+        }
+    }
+
+    private static String escapeLike(String str) {
+        return str.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    //agrega no banco; as faixas de idade viram limites de data calculados aqui para a consulta usar so comparacoes
+    @Override
+    public List<DepartmentStats> findDepartmentStats() {
+        PooledConnection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = pool.borrow();
+            st = conn.prepareStatement(
+                    "SELECT department.Id, department.Name, COUNT(seller.Id), " +
+                            "SUM(seller.BaseSalary), AVG(seller.BaseSalary), " +
+                            "MIN(seller.BaseSalary), MAX(seller.BaseSalary), " +
+                            "SUM(CASE WHEN seller.BirthDate > ? THEN 1 ELSE 0 END), " +
+                            "SUM(CASE WHEN seller.BirthDate <= ? AND seller.BirthDate > ? THEN 1 ELSE 0 END), " +
+                            "SUM(CASE WHEN seller.BirthDate <= ? AND seller.BirthDate > ? THEN 1 ELSE 0 END), " +
+                            "SUM(CASE WHEN seller.BirthDate <= ? THEN 1 ELSE 0 END) " +
+                            "FROM department LEFT JOIN seller " +
+                            "ON seller.DepartmentId = department.Id " +
+                            "GROUP BY department.Id, department.Name " +
+                            "ORDER BY department.Name");
+
+            //quem nasceu depois de hoje - 30 anos tem menos de 30
+            LocalDate today = LocalDate.now();
+            java.sql.Date age30 = java.sql.Date.valueOf(today.minusYears(30));
+            java.sql.Date age40 = java.sql.Date.valueOf(today.minusYears(40));
+            java.sql.Date age50 = java.sql.Date.valueOf(today.minusYears(50));
+            st.setDate(1, age30);
+            st.setDate(2, age30);
+            st.setDate(3, age40);
+            st.setDate(4, age40);
+            st.setDate(5, age50);
+            st.setDate(6, age50);
+
+            rs = st.executeQuery();
+            List<DepartmentStats> list = new ArrayList<>();
+            while (rs.next()) {
+                DepartmentStats stats = new DepartmentStats();
+                stats.setDepartment(DepartmentRegistry.intern(rs.getInt(1), rs.getString(2)));
+                stats.setHeadcount(rs.getInt(3));
+                stats.setTotalSalary(rs.getDouble(4));
+                stats.setAvgSalary(rs.getObject(5) == null ? null : rs.getDouble(5));
+                stats.setMinSalary(rs.getObject(6) == null ? null : rs.getDouble(6));
+                stats.setMaxSalary(rs.getObject(7) == null ? null : rs.getDouble(7));
+                stats.setUnder30(rs.getInt(8));
+                stats.setFrom30to39(rs.getInt(9));
+                stats.setFrom40to49(rs.getInt(10));
+                stats.setFrom50(rs.getInt(11));
+                list.add(stats);
+            }
+            return list;
+
+        } catch (SQLException e) {
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeResulSet(rs);
+            DB.releaseConnection(conn);
         }
     }
 
     @Override
     public List<Seller> findByDepartment(Department department) {
+        PooledConnection conn = null;
         PreparedStatement st = null;
         ResultSet rs = null;
         try {
+            conn = pool.borrow();
             st = conn.prepareStatement(
                     "SELECT seller.*,department.Name as DepName " +
                             "FROM seller INNER JOIN department " +
@@ -209,28 +593,14 @@ public class SellerDaoJDBC implements SellerDao {
 
             rs = st.executeQuery();
 
-            List<Seller> list = new ArrayList<>();
-            Map<Integer, Department> map = new HashMap<>();
-
-            while (rs.next()) {
-
-                Department dep = map.get(rs.getInt("DepartmentId"));
-
-                if (dep == null) {
-                    dep = instantiateDepartment(rs);
-                    map.put(rs.getInt("DepartmentId"), dep);
-                }
-                Seller obj = instantiateSeleer(rs, dep);
-                list.add(obj);
-            }
-            return list;
+            return instantiateSellers(rs);
 
 
         } catch (SQLException e) {
             throw new DbException(e.getMessage());
         } finally {
-            DB.closeStatement(st);
             DB.closeResulSet(rs);
+            DB.releaseConnection(conn);
         }
 
     }
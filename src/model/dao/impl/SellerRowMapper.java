@@ -0,0 +1,69 @@
+package model.dao.impl;
+
+import db.DbException;
+import model.entities.Department;
+import model.entities.DepartmentRegistry;
+import model.entities.Seller;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+//resolve os indices das colunas uma vez por consulta e le as linhas pela posicao
+class SellerRowMapper {
+
+    private final int id;
+    private final int name;
+    private final int email;
+    private final int birthDate;
+    private final int baseSalary;
+    private final int departmentId;
+    private final int depName;
+
+    private final Map<Integer, Department> departments = new HashMap<>();
+
+    SellerRowMapper(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        this.id = indexOf(meta, "Id");
+        this.name = indexOf(meta, "Name");
+        this.email = indexOf(meta, "Email");
+        this.birthDate = indexOf(meta, "BirthDate");
+        this.baseSalary = indexOf(meta, "BaseSalary");
+        this.departmentId = indexOf(meta, "DepartmentId");
+        this.depName = indexOf(meta, "DepName");
+    }
+
+    Seller map(ResultSet rs) throws SQLException {
+        Seller obj = new Seller();
+        obj.setId(rs.getInt(id));
+        obj.setName(rs.getString(name));
+        obj.setEmail(rs.getString(email));
+        obj.setBaseSalary(rs.getDouble(baseSalary));
+        //java.sql.Date ja e um java.util.Date (meia-noite no fuso local), sem LocalDate/ZonedDateTime por linha
+        obj.setBirthDate(rs.getDate(birthDate));
+        obj.setDepartment(department(rs));
+        return obj.freeze();
+    }
+
+    //cada departamento passa pelo DepartmentRegistry uma vez por consulta
+    private Department department(ResultSet rs) throws SQLException {
+        int depId = rs.getInt(departmentId);
+        Department dep = departments.get(depId);
+        if (dep == null) {
+            dep = DepartmentRegistry.intern(depId, rs.getString(depName));
+            departments.put(depId, dep);
+        }
+        return dep;
+    }
+
+    static int indexOf(ResultSetMetaData meta, String label) throws SQLException {
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            if (label.equalsIgnoreCase(meta.getColumnLabel(i))) {
+                return i;
+            }
+        }
+        throw new DbException("Column not found: " + label);
+    }
+}
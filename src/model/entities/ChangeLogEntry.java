@@ -0,0 +1,77 @@
+package model.entities;
+
+import java.io.Serializable;
+
+//linha da tabela change_log: qual entidade mudou e como (I insert, U update, D delete)
+public class ChangeLogEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String SELLER = "seller";
+    public static final String DEPARTMENT = "department";
+
+    private Long id;
+    private String entityType;
+    private Integer entityId;
+    private String kind;
+
+    public ChangeLogEntry() {
+    }
+
+    public ChangeLogEntry(Long id, String entityType, Integer entityId, String kind) {
+        this.id = id;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.kind = kind;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public Integer getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Integer entityId) {
+        this.entityId = entityId;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public void setKind(String kind) {
+        this.kind = kind;
+    }
+
+    public boolean isDelete() {
+        return "D".equals(kind);
+    }
+
+    public boolean isInsert() {
+        return "I".equals(kind);
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeLogEntry{" +
+                "id=" + id +
+                ", entityType='" + entityType + '\'' +
+                ", entityId=" + entityId +
+                ", kind='" + kind + '\'' +
+                '}';
+    }
+}
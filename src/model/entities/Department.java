@@ -6,6 +6,9 @@ public class Department implements Serializable {
     private Integer id;
     private String name;
 
+    //instancia do DepartmentRegistry, compartilhada e so de leitura; volatile pelo mesmo motivo do Seller
+    private volatile boolean frozen;
+
     public Department() {
         this.name = "";
     }
@@ -20,6 +23,7 @@ public class Department implements Serializable {
     }
 
     public void setId(Integer id) {
+        checkNotFrozen();
         this.id = id;
     }
 
@@ -28,9 +32,25 @@ public class Department implements Serializable {
     }
 
     public void setName(String name) {
+        checkNotFrozen();
         this.name = name;
     }
 
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    Department freeze() {
+        frozen = true;
+        return this;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Department " + id + " is shared, change a new instance");
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,48 @@
+package model.entities;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+//uma instancia de Department por Id para o programa todo: vendedores de consultas diferentes apontam para o mesmo
+//objeto. As instancias registradas nao mudam, renomear registra uma nova no lugar da antiga
+public class DepartmentRegistry {
+
+    private static final ConcurrentHashMap<Integer, Department> departments = new ConcurrentHashMap<>();
+
+    public static Department intern(Integer id, String name) {
+        if (id == null) {
+            return new Department(null, name);
+        }
+        Department current = departments.get(id);
+        if (current != null && Objects.equals(current.getName(), name)) {
+            return current;
+        }
+        return departments.compute(id, (key, old) ->
+                old != null && Objects.equals(old.getName(), name) ? old : new Department(id, name).freeze());
+    }
+
+    public static Department intern(Department dep) {
+        return dep == null ? null : intern(dep.getId(), dep.getName());
+    }
+
+    //dados que podem estar velhos (snapshot local): usa a instancia registrada como esta, so registra se nao existe
+    public static Department internIfAbsent(Integer id, String name) {
+        if (id == null) {
+            return new Department(null, name);
+        }
+        return departments.computeIfAbsent(id, key -> new Department(id, name).freeze());
+    }
+
+    //null se o departamento ainda nao foi lido
+    public static Department get(Integer id) {
+        return departments.get(id);
+    }
+
+    public static void remove(Integer id) {
+        departments.remove(id);
+    }
+
+    public static int size() {
+        return departments.size();
+    }
+}
@@ -0,0 +1,119 @@
+package model.entities;
+
+import java.io.Serializable;
+
+//totais de um departamento calculados pelo banco (GROUP BY), com a distribuicao de idade em faixas
+public class DepartmentStats implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Department department;
+    private int headcount;
+    private double totalSalary;
+    private Double avgSalary;
+    private Double minSalary;
+    private Double maxSalary;
+    private int under30;
+    private int from30to39;
+    private int from40to49;
+    private int from50;
+
+    public DepartmentStats() {
+    }
+
+    public Department getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(Department department) {
+        this.department = department;
+    }
+
+    public int getHeadcount() {
+        return headcount;
+    }
+
+    public void setHeadcount(int headcount) {
+        this.headcount = headcount;
+    }
+
+    public double getTotalSalary() {
+        return totalSalary;
+    }
+
+    public void setTotalSalary(double totalSalary) {
+        this.totalSalary = totalSalary;
+    }
+
+    public Double getAvgSalary() {
+        return avgSalary;
+    }
+
+    public void setAvgSalary(Double avgSalary) {
+        this.avgSalary = avgSalary;
+    }
+
+    public Double getMinSalary() {
+        return minSalary;
+    }
+
+    public void setMinSalary(Double minSalary) {
+        this.minSalary = minSalary;
+    }
+
+    public Double getMaxSalary() {
+        return maxSalary;
+    }
+
+    public void setMaxSalary(Double maxSalary) {
+        this.maxSalary = maxSalary;
+    }
+
+    public int getUnder30() {
+        return under30;
+    }
+
+    public void setUnder30(int under30) {
+        this.under30 = under30;
+    }
+
+    public int getFrom30to39() {
+        return from30to39;
+    }
+
+    public void setFrom30to39(int from30to39) {
+        this.from30to39 = from30to39;
+    }
+
+    public int getFrom40to49() {
+        return from40to49;
+    }
+
+    public void setFrom40to49(int from40to49) {
+        this.from40to49 = from40to49;
+    }
+
+    public int getFrom50() {
+        return from50;
+    }
+
+    public void setFrom50(int from50) {
+        this.from50 = from50;
+    }
+
+    @Override
+    public String toString() {
+        return "DepartmentStats{" +
+                "department=" + department +
+                ", headcount=" + headcount +
+                ", totalSalary=" + totalSalary +
+                ", avgSalary=" + avgSalary +
+                ", minSalary=" + minSalary +
+                ", maxSalary=" + maxSalary +
+                ", under30=" + under30 +
+                ", from30to39=" + from30to39 +
+                ", from40to49=" + from40to49 +
+                ", from50=" + from50 +
+                '}';
+    }
+}
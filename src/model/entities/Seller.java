@@ -13,6 +13,11 @@ public class Seller implements Serializable {
 
     private Department department;
 
+    //depois de lido ou gravado o vendedor e compartilhado entre telas, caches e threads e nao muda mais.
+    //volatile: quem ve frozen == true ve tambem os campos gravados antes do freeze, qualquer que seja o caminho
+    //pelo qual recebeu a instancia
+    private volatile boolean frozen;
+
     public Seller() {
     }
 
@@ -30,6 +35,7 @@ public class Seller implements Serializable {
     }
 
     public void setId(Integer id) {
+        checkNotFrozen();
         this.id = id;
     }
 
@@ -38,6 +44,7 @@ public class Seller implements Serializable {
     }
 
     public void setName(String name) {
+        checkNotFrozen();
         this.name = name;
     }
 
@@ -46,14 +53,29 @@ public class Seller implements Serializable {
     }
 
     public void setEmail(String email) {
+        checkNotFrozen();
         this.email = email;
     }
 
+    //Date e mutavel, o vendedor compartilhado entrega uma copia
     public Date getBirthDate() {
-        return birthDate;
+        return frozen && birthDate != null ? new Date(birthDate.getTime()) : birthDate;
+    }
+
+    public boolean hasBirthDate() {
+        return birthDate != null;
+    }
+
+    //getTime() da data sem copiar o Date (comparacoes e serializacao por linha); so com hasBirthDate()
+    public long getBirthDateMillis() {
+        if (birthDate == null) {
+            throw new IllegalStateException("Seller " + id + " has no birth date");
+        }
+        return birthDate.getTime();
     }
 
     public void setBirthDate(Date birthDate) {
+        checkNotFrozen();
         this.birthDate = birthDate;
     }
 
@@ -62,6 +84,7 @@ public class Seller implements Serializable {
     }
 
     public void setBaseSalary(Double baseSalary) {
+        checkNotFrozen();
         this.baseSalary = baseSalary;
     }
 
@@ -70,9 +93,30 @@ public class Seller implements Serializable {
     }
 
     public void setDepartment(Department department) {
+        checkNotFrozen();
         this.department = department;
     }
 
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    public Seller freeze() {
+        frozen = true;
+        return this;
+    }
+
+    //copia que pode ser alterada, para editar um vendedor compartilhado
+    public Seller copy() {
+        return new Seller(id, name, email, birthDate == null ? null : new Date(birthDate.getTime()), baseSalary, department);
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Seller " + id + " is shared, edit a copy");
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,63 @@
+package model.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//CSV simples: virgula como separador, aspas duplas para campos com virgula, aspas ou quebra de linha
+public class CsvFormat {
+
+    public static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    //aspas abertas no fim da linha: o campo continua na proxima linha do arquivo
+    public static boolean hasOpenQuote(CharSequence line) {
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                quoted = !quoted;
+            }
+        }
+        return quoted;
+    }
+
+    public static String quote(String str) {
+        return '"' + str.replace("\"", "\"\"") + '"';
+    }
+
+    //so poe aspas quando precisa
+    public static void appendField(StringBuilder sb, String str) {
+        if (str == null) {
+            return;
+        }
+        if (str.indexOf(',') >= 0 || str.indexOf('"') >= 0 || str.indexOf('\n') >= 0 || str.indexOf('\r') >= 0) {
+            sb.append(quote(str));
+        } else {
+            sb.append(str);
+        }
+    }
+}
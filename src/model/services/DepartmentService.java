@@ -3,9 +3,12 @@ package model.services;
 import model.dao.DaoFactory;
 import model.dao.DepartmentDao;
 import model.entities.Department;
+import model.entities.DepartmentRegistry;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class DepartmentService {
 
@@ -21,11 +24,55 @@ public class DepartmentService {
             dao.insert(obj);
         }else {
             dao.update(obj);
+            DaoFactory.getSellerCache().invalidateAll();
+            departmentRenamed(obj);
         }
+        DepartmentStatsService.invalidate();
+    }
+
+    public void saveOrUpdate(Collection<Department> list){
+        List<Department> inserts = new ArrayList<>();
+        List<Department> updates = new ArrayList<>();
+        for(Department obj : list){
+            if(obj.getId() == null){
+                inserts.add(obj);
+            }else {
+                updates.add(obj);
+            }
+        }
+        dao.insertAll(inserts);
+        dao.updateAll(updates);
+        if(!updates.isEmpty()){
+            DaoFactory.getSellerCache().invalidateAll();
+        }
+        for(Department obj : updates){
+            departmentRenamed(obj);
+        }
+        DepartmentStatsService.invalidate();
     }
 
     public void remove(Department obj){
         dao.deleteById(obj.getId());
+        DepartmentStatsService.invalidate();
+    }
+
+    //os vendedores congelados no mapa de identidade (invalidado acima) e no indice de busca guardam a instancia
+    //antiga do departamento; o indice passa a usar a registrada com o nome novo
+    private static void departmentRenamed(Department obj){
+        Department registered = DepartmentRegistry.intern(obj);
+        new SellerService().getSearchIndex().replaceDepartment(registered);
+    }
+
+    public CompletableFuture<List<Department>> findAllAsync(){
+        return ServiceExecutor.supply(this::findAll);
+    }
+
+    public CompletableFuture<Void> saveOrUpdateAsync(Department obj){
+        return ServiceExecutor.run(() -> saveOrUpdate(obj));
+    }
+
+    public CompletableFuture<Void> removeAsync(Department obj){
+        return ServiceExecutor.run(() -> remove(obj));
     }
 
 
@@ -0,0 +1,56 @@
+package model.services;
+
+import model.dao.DaoFactory;
+import model.dao.SellerDao;
+import model.entities.DepartmentStats;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+//estatisticas por departamento, calculadas pelo banco e guardadas ate a proxima escrita em vendedores ou departamentos,
+//ou ate virar o dia: as faixas de idade dependem da data da consulta
+public class DepartmentStatsService {
+
+    private static volatile List<DepartmentStats> cached;
+
+    private static volatile LocalDate cachedOn;
+
+    //incrementado a cada invalidacao, evita guardar uma leitura feita antes dela
+    private static long version;
+
+    private SellerDao dao = DaoFactory.createSellerDao();
+
+    public List<DepartmentStats> findAll(){
+        LocalDate today = LocalDate.now();
+        List<DepartmentStats> current = cached;
+        if(current != null && today.equals(cachedOn)){
+            return new ArrayList<>(current);
+        }
+        long startVersion;
+        synchronized (DepartmentStatsService.class){
+            startVersion = version;
+        }
+        List<DepartmentStats> loaded = Collections.unmodifiableList(dao.findDepartmentStats());
+        synchronized (DepartmentStatsService.class){
+            if(version == startVersion){
+                cachedOn = today;
+                cached = loaded;
+            }
+        }
+        return new ArrayList<>(loaded);
+    }
+
+    public CompletableFuture<List<DepartmentStats>> findAllAsync(){
+        return ServiceExecutor.supply(this::findAll);
+    }
+
+    public static void invalidate(){
+        synchronized (DepartmentStatsService.class){
+            version++;
+            cached = null;
+        }
+    }
+}
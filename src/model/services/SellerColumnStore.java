@@ -0,0 +1,375 @@
+package model.services;
+
+import model.entities.Department;
+import model.entities.Seller;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//vendedores guardados em colunas de tipos primitivos, sem um objeto por vendedor: id, salario e data de nascimento
+//(dias desde 1970) em arrays, departamento como codigo de um dicionario e textos em UTF-8 num unico byte[].
+//Nao e thread-safe, quem usa controla o acesso
+public class SellerColumnStore {
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int NO_TEXT = -1;
+
+    //so compacta os textos acima desse tamanho
+    private static final int MIN_COMPACT_BYTES = 64 * 1024;
+
+    private int size;
+    private int removedCount;
+
+    private int[] ids;
+    //NaN quando o salario e null
+    private double[] salaries;
+    private int[] birthDays;
+    //0 quando nao tem departamento, senao posicao no dicionario + 1
+    private char[] departmentCodes;
+    //posicao do texto em text, NO_TEXT quando e null
+    private int[] names;
+    private int[] emails;
+    private final BitSet removed = new BitSet();
+
+    private final List<Department> departments = new ArrayList<>();
+    private final Map<Integer, Integer> departmentCodesById = new HashMap<>();
+
+    //cada texto e gravado como tamanho (varint) + bytes UTF-8
+    private byte[] text;
+    private int textLength;
+    //bytes de textos substituidos ou removidos, liberados na compactacao
+    private int garbageBytes;
+
+    //id -> linha + 1 com enderecamento aberto, 0 e posicao livre
+    private int[] slots;
+
+    public SellerColumnStore() {
+        this(1024);
+    }
+
+    public SellerColumnStore(int capacity) {
+        capacity = Math.max(16, capacity);
+        ids = new int[capacity];
+        salaries = new double[capacity];
+        birthDays = new int[capacity];
+        departmentCodes = new char[capacity];
+        names = new int[capacity];
+        emails = new int[capacity];
+        text = new byte[capacity * 32];
+        slots = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+    }
+
+    //linhas gravadas, contando as removidas
+    public int size() {
+        return size;
+    }
+
+    public int liveCount() {
+        return size - removedCount;
+    }
+
+    //insere no fim ou atualiza a linha do mesmo id no lugar, retorna a linha
+    public int put(Seller obj) {
+        if (obj.getId() == null) {
+            throw new IllegalArgumentException("Seller without id");
+        }
+        int row = rowOf(obj.getId());
+        if (row < 0) {
+            row = append(obj.getId());
+        } else if (removed.get(row)) {
+            removed.clear(row);
+            removedCount--;
+        } else {
+            garbageBytes += textSize(names[row]) + textSize(emails[row]);
+        }
+        names[row] = addText(obj.getName());
+        emails[row] = addText(obj.getEmail());
+        salaries[row] = obj.getBaseSalary() == null ? Double.NaN : obj.getBaseSalary();
+        birthDays[row] = !obj.hasBirthDate() ? NO_DATE : (int) LocalDate.ofInstant(
+                Instant.ofEpochMilli(obj.getBirthDateMillis()), ZoneId.systemDefault()).toEpochDay();
+        departmentCodes[row] = departmentCode(obj.getDepartment());
+        compactTextIfNeeded();
+        return row;
+    }
+
+    //a linha continua ocupando espaco nas colunas, marcada como removida
+    public boolean remove(int id) {
+        int row = rowOf(id);
+        if (row < 0 || removed.get(row)) {
+            return false;
+        }
+        removed.set(row);
+        removedCount++;
+        garbageBytes += textSize(names[row]) + textSize(emails[row]);
+        names[row] = NO_TEXT;
+        emails[row] = NO_TEXT;
+        compactTextIfNeeded();
+        return true;
+    }
+
+    //linha do id, -1 se nunca foi gravado
+    public int rowOf(int id) {
+        int mask = slots.length - 1;
+        for (int i = mix(id) & mask; ; i = (i + 1) & mask) {
+            int slot = slots[i];
+            if (slot == 0) {
+                return -1;
+            }
+            if (ids[slot - 1] == id) {
+                return slot - 1;
+            }
+        }
+    }
+
+    //troca a instancia do departamento no dicionario (por exemplo depois de renomear), vale para todas as linhas
+    public void replaceDepartment(Department dep) {
+        Integer code = departmentCodesById.get(dep.getId());
+        if (code != null) {
+            departments.set(code - 1, dep);
+        }
+    }
+
+    public Seller toSeller(int row) {
+        return cursor().moveTo(row).toSeller();
+    }
+
+    //visao de uma linha que le direto das colunas; pode ser reposicionada para percorrer varias linhas
+    public Row cursor() {
+        return new Row();
+    }
+
+    //custo estimado por vendedor vivo: colunas, textos, tabela de ids e dicionario
+    public double getBytesPerSeller() {
+        int live = liveCount();
+        if (live == 0) {
+            return 0.0;
+        }
+        long columns = (long) ids.length * (4 + 8 + 4 + 2 + 4 + 4);
+        long bytes = columns + text.length + 4L * slots.length + removed.size() / 8 + 64L * departments.size();
+        return (double) bytes / live;
+    }
+
+    @Override
+    public String toString() {
+        return "SellerColumnStore{" +
+                "sellers=" + liveCount() +
+                ", removed=" + removedCount +
+                ", departments=" + departments.size() +
+                ", bytesPerSeller=" + String.format("%.1f", getBytesPerSeller()) +
+                '}';
+    }
+
+    private int append(int id) {
+        if (size == ids.length) {
+            int capacity = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            salaries = Arrays.copyOf(salaries, capacity);
+            birthDays = Arrays.copyOf(birthDays, capacity);
+            departmentCodes = Arrays.copyOf(departmentCodes, capacity);
+            names = Arrays.copyOf(names, capacity);
+            emails = Arrays.copyOf(emails, capacity);
+        }
+        if ((size + 1) * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        int row = size++;
+        ids[row] = id;
+        insertSlot(row);
+        return row;
+    }
+
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        for (int row = 0; row < size; row++) {
+            insertSlot(row);
+        }
+    }
+
+    private void insertSlot(int row) {
+        int mask = slots.length - 1;
+        int i = mix(ids[row]) & mask;
+        while (slots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = row + 1;
+    }
+
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private char departmentCode(Department dep) {
+        if (dep == null || dep.getId() == null) {
+            return 0;
+        }
+        Integer code = departmentCodesById.get(dep.getId());
+        if (code == null) {
+            if (departments.size() == Character.MAX_VALUE) {
+                throw new IllegalStateException("Too many departments for SellerColumnStore");
+            }
+            departments.add(dep);
+            code = departments.size();
+            departmentCodesById.put(dep.getId(), code);
+        } else {
+            //o mais recente vale, por exemplo depois de renomear o departamento
+            departments.set(code - 1, dep);
+        }
+        return (char) (int) code;
+    }
+
+    private int addText(String str) {
+        if (str == null) {
+            return NO_TEXT;
+        }
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        ensureText(5 + bytes.length);
+        int offset = textLength;
+        int length = bytes.length;
+        while ((length & ~0x7F) != 0) {
+            text[textLength++] = (byte) ((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        text[textLength++] = (byte) length;
+        System.arraycopy(bytes, 0, text, textLength, bytes.length);
+        textLength += bytes.length;
+        return offset;
+    }
+
+    private String getText(int offset) {
+        if (offset == NO_TEXT) {
+            return null;
+        }
+        int length = readLength(text, offset);
+        return new String(text, offset + lengthSize(length), length, StandardCharsets.UTF_8);
+    }
+
+    //bytes ocupados pelo texto na posicao, incluindo o tamanho
+    private int textSize(int offset) {
+        return textSize(text, offset);
+    }
+
+    private static int textSize(byte[] buffer, int offset) {
+        if (offset == NO_TEXT) {
+            return 0;
+        }
+        int length = readLength(buffer, offset);
+        return lengthSize(length) + length;
+    }
+
+    private static int readLength(byte[] buffer, int offset) {
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer[offset++];
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return length;
+    }
+
+    private static int lengthSize(int length) {
+        int bytes = 1;
+        while ((length & ~0x7F) != 0) {
+            length >>>= 7;
+            bytes++;
+        }
+        return bytes;
+    }
+
+    private void ensureText(int extra) {
+        if (textLength + extra > text.length) {
+            text = Arrays.copyOf(text, Math.max(textLength + extra, text.length + (text.length >> 1)));
+        }
+    }
+
+    //reescreve os textos das linhas vivas, as linhas continuam com o mesmo numero
+    private void compactTextIfNeeded() {
+        if (textLength < MIN_COMPACT_BYTES || garbageBytes < textLength / 2) {
+            return;
+        }
+        byte[] old = text;
+        int oldLength = textLength;
+        text = new byte[Math.max(1024, oldLength - garbageBytes + (oldLength - garbageBytes) / 4)];
+        textLength = 0;
+        for (int row = 0; row < size; row++) {
+            names[row] = copyText(old, names[row]);
+            emails[row] = copyText(old, emails[row]);
+        }
+        garbageBytes = 0;
+    }
+
+    private int copyText(byte[] from, int offset) {
+        if (offset == NO_TEXT) {
+            return NO_TEXT;
+        }
+        int size = textSize(from, offset);
+        ensureText(size);
+        System.arraycopy(from, offset, text, textLength, size);
+        textLength += size;
+        return textLength - size;
+    }
+
+    public class Row {
+        private int index;
+
+        public Row moveTo(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Row " + index + " of " + size);
+            }
+            this.index = index;
+            return this;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public boolean isRemoved() {
+            return removed.get(index);
+        }
+
+        public int getId() {
+            return ids[index];
+        }
+
+        public String getName() {
+            return getText(names[index]);
+        }
+
+        public String getEmail() {
+            return getText(emails[index]);
+        }
+
+        public LocalDate getBirthDate() {
+            return birthDays[index] == NO_DATE ? null : LocalDate.ofEpochDay(birthDays[index]);
+        }
+
+        public Double getBaseSalary() {
+            return Double.isNaN(salaries[index]) ? null : salaries[index];
+        }
+
+        public Department getDepartment() {
+            char code = departmentCodes[index];
+            return code == 0 ? null : departments.get(code - 1);
+        }
+
+        //objeto novo e congelado, como os que vem do banco
+        public Seller toSeller() {
+            LocalDate date = getBirthDate();
+            return new Seller(getId(), getName(), getEmail(),
+                    date == null ? null : new Date(date.atStartOfDay(ZoneId.systemDefault()).toEpochSecond() * 1000L),
+                    getBaseSalary(), getDepartment()).freeze();
+        }
+    }
+}
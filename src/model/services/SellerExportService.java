@@ -0,0 +1,225 @@
+package model.services;
+
+import model.entities.Department;
+import model.entities.DepartmentStats;
+import model.entities.Seller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+//exporta vendedores lendo pelo cursor do forEach e gravando num buffer de tamanho fixo: nenhuma lista inteira em memoria
+public class SellerExportService {
+
+    public enum Format {
+        CSV, JSON
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    //de quantas em quantas linhas avisa o progresso
+    private static final int PROGRESS_STEP = 5000;
+
+    private final SellerService sellerService = new SellerService();
+    private final DepartmentStatsService statsService = new DepartmentStatsService();
+
+    //department null exporta todos; o mesmo formato CSV e aceito pela importacao.
+    //Se for cancelado o arquivo incompleto e apagado
+    public long export(Path file, Format format, Department department, AtomicBoolean cancelled,
+                       Consumer<Double> progress) throws IOException {
+        try {
+            return write(file, format, department, cancelled, progress);
+        } catch (CancellationException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    private long write(Path file, Format format, Department department, AtomicBoolean cancelled,
+                       Consumer<Double> progress) throws IOException {
+        long expected = expectedRows(department);
+        long[] written = new long[1];
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            StringBuilder sb = new StringBuilder(256);
+
+            write(channel, buffer, format == Format.CSV
+                    ? "Name,Email,BirthDate,BaseSalary,Department,Id\n"
+                    : "[\n");
+
+            Consumer<Seller> action = obj -> {
+                if (cancelled.get()) {
+                    throw new CancellationException("Export cancelled");
+                }
+                sb.setLength(0);
+                if (format == Format.CSV) {
+                    appendCsv(sb, obj);
+                } else {
+                    if (written[0] > 0) {
+                        sb.append(",\n");
+                    }
+                    appendJson(sb, obj);
+                }
+                try {
+                    write(channel, buffer, sb);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                written[0]++;
+                if (written[0] % PROGRESS_STEP == 0) {
+                    progress.accept(expected > 0 ? Math.min(1.0, (double) written[0] / expected) : -1.0);
+                }
+            };
+
+            try {
+                if (department == null) {
+                    sellerService.forEach(action);
+                } else {
+                    sellerService.forEachByDepartment(department, action);
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            if (format == Format.JSON) {
+                write(channel, buffer, written[0] > 0 ? "\n]\n" : "]\n");
+            }
+            flush(channel, buffer);
+        }
+        progress.accept(1.0);
+        return written[0];
+    }
+
+    public CompletableFuture<Long> exportAsync(Path file, Format format, Department department,
+                                               AtomicBoolean cancelled, Consumer<Double> progress) {
+        return ServiceExecutor.supply(() -> {
+            try {
+                return export(file, format, department, cancelled, progress);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    //total vem das estatisticas ja calculadas pelo banco, sem contar as linhas de novo
+    private long expectedRows(Department department) {
+        try {
+            long total = 0;
+            for (DepartmentStats stats : statsService.findAll()) {
+                if (department == null || Objects.equals(stats.getDepartment().getId(), department.getId())) {
+                    total += stats.getHeadcount();
+                }
+            }
+            return total;
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static void appendCsv(StringBuilder sb, Seller obj) {
+        CsvFormat.appendField(sb, obj.getName());
+        sb.append(',');
+        CsvFormat.appendField(sb, obj.getEmail());
+        sb.append(',');
+        sb.append(formatDate(obj));
+        sb.append(',');
+        if (obj.getBaseSalary() != null) {
+            sb.append(formatSalary(obj.getBaseSalary()));
+        }
+        sb.append(',');
+        CsvFormat.appendField(sb, obj.getDepartment() == null ? null : obj.getDepartment().getName());
+        sb.append(',');
+        sb.append(obj.getId());
+        sb.append('\n');
+    }
+
+    private static void appendJson(StringBuilder sb, Seller obj) {
+        sb.append("  {\"id\": ").append(obj.getId());
+        sb.append(", \"name\": ");
+        appendJsonString(sb, obj.getName());
+        sb.append(", \"email\": ");
+        appendJsonString(sb, obj.getEmail());
+        sb.append(", \"birthDate\": ");
+        appendJsonString(sb, obj.getBirthDate() == null ? null : formatDate(obj));
+        sb.append(", \"baseSalary\": ")
+                .append(obj.getBaseSalary() == null ? null : formatSalary(obj.getBaseSalary()));
+        sb.append(", \"departmentId\": ").append(obj.getDepartment() == null ? null : obj.getDepartment().getId());
+        sb.append(", \"department\": ");
+        appendJsonString(sb, obj.getDepartment() == null ? null : obj.getDepartment().getName());
+        sb.append('}');
+    }
+
+    private static void appendJsonString(StringBuilder sb, String str) {
+        if (str == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    //valor exato do double, sem arredondar e sem notacao cientifica (1.0E7): a importacao le de volta o mesmo numero
+    private static String formatSalary(double salary) {
+        return BigDecimal.valueOf(salary).toPlainString();
+    }
+
+    private static String formatDate(Seller obj) {
+        if (obj.getBirthDate() == null) {
+            return "";
+        }
+        return LocalDate.ofInstant(Instant.ofEpochMilli(obj.getBirthDate().getTime()), ZoneId.systemDefault()).toString();
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer, CharSequence text) throws IOException {
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                flush(channel, buffer);
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,381 @@
+package model.services;
+
+import db.DB;
+import model.entities.Department;
+import model.entities.Seller;
+import model.exceptions.ValidationException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+//importa vendedores de um CSV com cabecalho (Name,Email,BirthDate,BaseSalary,Department[,Id], em qualquer ordem)
+//em blocos: a memoria usada depende do tamanho do bloco, nao do arquivo. Com Id de um vendedor que existe a linha
+//atualiza ele, assim o arquivo da exportacao pode ser importado de volta sem duplicar
+public class SellerImportService {
+
+    private static final DateTimeFormatter BR_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private static final List<String> REQUIRED_COLUMNS =
+            Arrays.asList("Name", "Email", "BirthDate", "BaseSalary", "Department");
+
+    //uma aspa sem par nao engole o resto do arquivo: o registro para aqui e e rejeitado
+    private static final int MAX_RECORD_LINES = 100;
+
+    private final SellerService sellerService = new SellerService();
+    private final DepartmentService departmentService = new DepartmentService();
+
+    private final int chunkSize = Math.max(1, DB.getIntProperty("import.chunkSize", 5000));
+
+    //as linhas rejeitadas vao para <arquivo>.rejected.csv
+    public Progress importCsv(Path file, AtomicBoolean cancelled, Consumer<Progress> listener) throws IOException {
+        Map<String, Department> departments = departmentsByName();
+        Path reportFile = file.resolveSibling(file.getFileName() + ".rejected.csv");
+        long totalBytes = Math.max(1, Files.size(file));
+        Progress progress = new Progress(reportFile);
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            //o cabecalho e conferido antes de criar o relatorio: arquivo com colunas erradas nao importa nada
+            String header = reader.readLine();
+            Columns columns = header == null ? null : Columns.fromHeader(header);
+            long bytesRead = header == null ? 0 : utf8Length(header) + 1;
+            long lineNumber = 1;
+
+            try (BufferedWriter report = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+                report.write("Line,Errors,Row");
+                report.newLine();
+
+                List<RawLine> chunk = new ArrayList<>(chunkSize);
+                String line;
+                while (!cancelled.get()) {
+                    line = reader.readLine();
+                    if (line != null) {
+                        lineNumber++;
+                        bytesRead += utf8Length(line) + 1;
+                        long firstLine = lineNumber;
+                        //campo entre aspas com quebra de linha: o registro continua nas proximas linhas
+                        if (CsvFormat.hasOpenQuote(line)) {
+                            StringBuilder record = new StringBuilder(line);
+                            String next;
+                            while (CsvFormat.hasOpenQuote(record) && lineNumber - firstLine < MAX_RECORD_LINES
+                                    && (next = reader.readLine()) != null) {
+                                lineNumber++;
+                                bytesRead += utf8Length(next) + 1;
+                                record.append('\n').append(next);
+                            }
+                            line = record.toString();
+                        }
+                        if (!line.trim().isEmpty()) {
+                            chunk.add(new RawLine(firstLine, line));
+                        }
+                    }
+                    if (chunk.size() >= chunkSize || (line == null && !chunk.isEmpty())) {
+                        importChunk(chunk, columns, departments, report, progress);
+                        chunk.clear();
+                        progress.fraction = Math.min(1.0, (double) bytesRead / totalBytes);
+                        listener.accept(progress.copy());
+                    }
+                    if (line == null) {
+                        break;
+                    }
+                }
+            }
+        }
+        progress.cancelled = cancelled.get();
+        if (!progress.cancelled) {
+            progress.fraction = 1.0;
+        }
+        return progress.copy();
+    }
+
+    public CompletableFuture<Progress> importCsvAsync(Path file, AtomicBoolean cancelled, Consumer<Progress> listener) {
+        return ServiceExecutor.supply(() -> {
+            try {
+                return importCsv(file, cancelled, listener);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    //valida o bloco em paralelo e grava os validos em lotes com SellerService
+    private void importChunk(List<RawLine> chunk, Columns columns, Map<String, Department> departments,
+                             BufferedWriter report, Progress progress) throws IOException {
+        List<ParsedLine> parsed = chunk.parallelStream()
+                .map(raw -> parse(raw, columns, departments))
+                .collect(Collectors.toList());
+
+        List<Seller> valid = new ArrayList<>(parsed.size());
+        List<Integer> ids = new ArrayList<>();
+        for (ParsedLine p : parsed) {
+            if (p.errors == null) {
+                valid.add(p.seller);
+                if (p.seller.getId() != null) {
+                    ids.add(p.seller.getId());
+                }
+            } else {
+                report.write(p.raw.number + "," + CsvFormat.quote(p.errors) + "," + CsvFormat.quote(p.raw.text));
+                report.newLine();
+                progress.rejected++;
+            }
+        }
+        //Id que nao existe neste banco (arquivo de outra base) vira vendedor novo
+        if (!ids.isEmpty()) {
+            Set<Integer> existing = new HashSet<>();
+            for (Seller obj : sellerService.findByIds(ids)) {
+                existing.add(obj.getId());
+            }
+            for (Seller obj : valid) {
+                if (obj.getId() != null && !existing.contains(obj.getId())) {
+                    obj.setId(null);
+                }
+            }
+        }
+        if (!valid.isEmpty()) {
+            sellerService.saveOrUpdate(valid);
+            progress.imported += valid.size();
+        }
+        progress.rowsRead += chunk.size();
+    }
+
+    private static ParsedLine parse(RawLine raw, Columns columns, Map<String, Department> departments) {
+        List<String> fields = CsvFormat.split(raw.text);
+        Seller obj = new Seller();
+        ValidationException errors = new ValidationException("Validation Error");
+
+        obj.setName(field(fields, columns.name));
+        obj.setEmail(field(fields, columns.email));
+        String birthDate = field(fields, columns.birthDate);
+        if (birthDate != null) {
+            LocalDate date = parseDate(birthDate);
+            if (date == null) {
+                errors.addError("birthDate", "Invalid date: " + birthDate);
+            } else {
+                obj.setBirthDate(Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+            }
+        }
+        String salary = field(fields, columns.baseSalary);
+        if (salary != null) {
+            try {
+                obj.setBaseSalary(Double.parseDouble(salary));
+            } catch (NumberFormatException e) {
+                errors.addError("baseSalary", "Invalid number: " + salary);
+            }
+        }
+        String depName = field(fields, columns.department);
+        Department dep = depName == null ? null : departments.get(depName.toLowerCase(Locale.ROOT));
+        if (dep == null) {
+            errors.addError("department", "Unknown department: " + depName);
+        }
+        obj.setDepartment(dep);
+        String id = field(fields, columns.id);
+        if (id != null) {
+            try {
+                obj.setId(Integer.parseInt(id));
+            } catch (NumberFormatException e) {
+                errors.addError("id", "Invalid id: " + id);
+            }
+        }
+
+        try {
+            SellerValidator.validate(obj);
+        } catch (ValidationException e) {
+            //erro de formato tem prioridade sobre "campo vazio" no mesmo campo
+            e.getErrors().forEach(errors.getErrors()::putIfAbsent);
+        }
+        if (errors.getErrors().isEmpty()) {
+            return new ParsedLine(raw, obj, null);
+        }
+        StringBuilder sb = new StringBuilder();
+        errors.getErrors().forEach((field, message) -> {
+            if (sb.length() > 0) {
+                sb.append("; ");
+            }
+            sb.append(field).append(": ").append(message);
+        });
+        return new ParsedLine(raw, null, sb.toString());
+    }
+
+    //nomes de departamento vem do cache, sem ir ao banco por linha
+    private Map<String, Department> departmentsByName() {
+        Map<String, Department> map = new HashMap<>();
+        for (Department dep : departmentService.findAll()) {
+            if (dep.getName() != null) {
+                map.putIfAbsent(dep.getName().trim().toLowerCase(Locale.ROOT), dep);
+            }
+        }
+        return map;
+    }
+
+    private static LocalDate parseDate(String str) {
+        try {
+            return str.contains("/") ? LocalDate.parse(str, BR_DATE) : LocalDate.parse(str);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    //tamanho em bytes no arquivo, para o progresso bater com Files.size em textos com acento
+    private static int utf8Length(String str) {
+        int bytes = 0;
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    //index -1: coluna opcional que o arquivo nao tem
+    private static String field(List<String> fields, int index) {
+        if (index < 0 || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    //posicao de cada coluna no arquivo, pelo nome no cabecalho (sem diferenciar maiusculas); a ordem e livre e
+    //colunas que o importador nao conhece sao ignoradas
+    private static class Columns {
+        private final int name;
+        private final int email;
+        private final int birthDate;
+        private final int baseSalary;
+        private final int department;
+        private final int id;
+
+        private Columns(Map<String, Integer> positions) {
+            this.name = positions.getOrDefault("name", -1);
+            this.email = positions.getOrDefault("email", -1);
+            this.birthDate = positions.getOrDefault("birthdate", -1);
+            this.baseSalary = positions.getOrDefault("basesalary", -1);
+            this.department = positions.getOrDefault("department", -1);
+            this.id = positions.getOrDefault("id", -1);
+        }
+
+        static Columns fromHeader(String header) {
+            //BOM que o Excel grava no inicio do arquivo
+            if (header.startsWith("\uFEFF")) {
+                header = header.substring(1);
+            }
+            Map<String, Integer> positions = new HashMap<>();
+            List<String> names = CsvFormat.split(header);
+            for (int i = 0; i < names.size(); i++) {
+                String key = names.get(i).trim().toLowerCase(Locale.ROOT);
+                if (!key.isEmpty() && positions.putIfAbsent(key, i) != null) {
+                    throw new ValidationException("Invalid CSV header, duplicated column: " + names.get(i).trim());
+                }
+            }
+            List<String> missing = new ArrayList<>();
+            for (String required : REQUIRED_COLUMNS) {
+                if (!positions.containsKey(required.toLowerCase(Locale.ROOT))) {
+                    missing.add(required);
+                }
+            }
+            if (!missing.isEmpty()) {
+                throw new ValidationException("Invalid CSV header, missing columns: " + String.join(", ", missing)
+                        + " (expected " + String.join(",", REQUIRED_COLUMNS) + "[,Id])");
+            }
+            return new Columns(positions);
+        }
+    }
+
+    private static class RawLine {
+        private final long number;
+        private final String text;
+
+        RawLine(long number, String text) {
+            this.number = number;
+            this.text = text;
+        }
+    }
+
+    private static class ParsedLine {
+        private final RawLine raw;
+        private final Seller seller;
+        private final String errors;
+
+        ParsedLine(RawLine raw, Seller seller, String errors) {
+            this.raw = raw;
+            this.seller = seller;
+            this.errors = errors;
+        }
+    }
+
+    public static class Progress {
+        private final Path reportFile;
+        private long rowsRead;
+        private long imported;
+        private long rejected;
+        private double fraction;
+        private boolean cancelled;
+
+        Progress(Path reportFile) {
+            this.reportFile = reportFile;
+        }
+
+        Progress copy() {
+            Progress p = new Progress(reportFile);
+            p.rowsRead = rowsRead;
+            p.imported = imported;
+            p.rejected = rejected;
+            p.fraction = fraction;
+            p.cancelled = cancelled;
+            return p;
+        }
+
+        public Path getReportFile() {
+            return reportFile;
+        }
+
+        public long getRowsRead() {
+            return rowsRead;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public double getFraction() {
+            return fraction;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
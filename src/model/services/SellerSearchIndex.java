@@ -0,0 +1,486 @@
+package model.services;
+
+import model.entities.Department;
+import model.entities.Seller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+//indice em memoria por prefixo de nome e email: arrays ordenados + um delta pequeno para as escritas.
+//Os vendedores da base ficam num SellerColumnStore, e o Seller so e criado para os resultados da busca
+public class SellerSearchIndex {
+
+    //ordem dos resultados: chave do nome (minusculas) e Id, a mesma dos arrays de nomes
+    private static final Comparator<Match> MATCH_ORDER =
+            Comparator.comparing((Match m) -> m.key).thenComparingInt(m -> m.id);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    //base: nomes em minusculas ordenados com a linha do vendedor no store; a posicao no array e a ordem do nome
+    private String[] nameKeys = new String[0];
+    private int[] nameRows = new int[0];
+    //emails em minusculas ordenados com a posicao do vendedor no array de nomes, e uma arvore de minimos sobre
+    //essas posicoes para tirar os emails de um prefixo ja na ordem do nome
+    private String[] emailKeys = new String[0];
+    private int[] emailRanks = new int[0];
+    private int[] minTree = new int[0];
+    private SellerColumnStore store = new SellerColumnStore();
+    private long keyBytes;
+
+    //escritas desde o ultimo merge
+    private final TreeMap<String, Seller> nameDelta = new TreeMap<>();
+    private final TreeMap<String, Seller> emailDelta = new TreeMap<>();
+    private final Map<Integer, Seller> deltaById = new HashMap<>();
+    private final Set<Integer> removedFromBase = new HashSet<>();
+
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    //recebe os vendedores de uma leitura em streaming e troca a base inteira
+    public void rebuild(Consumer<Consumer<Seller>> source) {
+        List<Entry> names = new ArrayList<>();
+        List<Entry> emails = new ArrayList<>();
+        SellerColumnStore newStore = new SellerColumnStore();
+        source.accept(obj -> addEntries(names, emails, obj, newStore.put(obj)));
+        installBase(names, emails, newStore);
+        ready = true;
+    }
+
+    //o limite vale depois de juntar base e delta, na ordem da tabela. Cada lado anda so ate o limite: os nomes
+    //ja estao nessa ordem e os emails saem da arvore de minimos em ordem de nome. Quem casa pelo nome e pelo
+    //email entra so pelo nome, entao nao ha repetidos para descartar
+    public List<Seller> search(String prefix, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        String p = prefix.toLowerCase(Locale.ROOT);
+        List<Match> found = new ArrayList<>();
+        List<Seller> list = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            searchBase(p, limit, found);
+            searchDelta(p, limit, found);
+            found.sort(MATCH_ORDER);
+            for (int i = 0; i < found.size() && i < limit; i++) {
+                Match match = found.get(i);
+                list.add(match.seller != null ? match.seller : store.toSeller(match.row));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return list;
+    }
+
+    private void searchBase(String p, int limit, List<Match> found) {
+        int nameLow = lowerBound(nameKeys, p);
+        int nameHigh = lowerBound(nameKeys, p + Character.MAX_VALUE);
+        EmailMatches emails = new EmailMatches(lowerBound(emailKeys, p),
+                lowerBound(emailKeys, p + Character.MAX_VALUE));
+        SellerColumnStore.Row row = store.cursor();
+        int taken = 0;
+        //emails de vendedores cujo nome vem antes do prefixo
+        int rank = emails.next();
+        while (taken < limit && rank >= 0 && rank < nameLow) {
+            if (addBase(found, row, rank)) {
+                taken++;
+            }
+            rank = emails.next();
+        }
+        for (int i = nameLow; taken < limit && i < nameHigh; i++) {
+            if (addBase(found, row, i)) {
+                taken++;
+            }
+        }
+        //so chega aqui com todos os nomes do prefixo ja incluidos (menos que o limite); os emails desses sao pulados
+        while (taken < limit && rank >= 0) {
+            if (rank >= nameHigh && addBase(found, row, rank)) {
+                taken++;
+            }
+            rank = emails.next();
+        }
+    }
+
+    private boolean addBase(List<Match> found, SellerColumnStore.Row row, int rank) {
+        int id = row.moveTo(nameRows[rank]).getId();
+        if (removedFromBase.contains(id)) {
+            return false;
+        }
+        found.add(new Match(nameKeys[rank], id, nameRows[rank], null));
+        return true;
+    }
+
+    //o delta de nomes esta na ordem certa; o de emails nao, e passa por um heap limitado (o delta e pequeno)
+    private void searchDelta(String p, int limit, List<Match> found) {
+        int taken = 0;
+        for (Seller obj : nameDelta.subMap(p, true, p + Character.MAX_VALUE, false).values()) {
+            if (taken++ == limit) {
+                break;
+            }
+            found.add(new Match(normalize(obj.getName()), obj.getId(), -1, obj));
+        }
+        PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, MATCH_ORDER.reversed());
+        for (Seller obj : emailDelta.subMap(p, true, p + Character.MAX_VALUE, false).values()) {
+            String name = normalize(obj.getName());
+            if (!name.startsWith(p)) {
+                best.add(new Match(name, obj.getId(), -1, obj));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+        found.addAll(best);
+    }
+
+    //vendedor sem id ainda nao foi gravado e nao entra no indice
+    public void put(Seller obj) {
+        if (obj.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            putLocked(obj);
+            mergeIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //um bloco inteiro (importacao, sincronizacao) com um lock so e no maximo um merge no fim
+    public void putAll(Collection<Seller> list) {
+        lock.writeLock().lock();
+        try {
+            for (Seller obj : list) {
+                if (obj.getId() != null) {
+                    putLocked(obj);
+                }
+            }
+            mergeIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //departamento renomeado: o store troca a instancia do dicionario e os vendedores do delta, congelados com
+    //a instancia antiga, sao trocados por copias com a nova
+    public void replaceDepartment(Department dep) {
+        lock.writeLock().lock();
+        try {
+            store.replaceDepartment(dep);
+            List<Seller> changed = new ArrayList<>();
+            for (Seller obj : deltaById.values()) {
+                if (obj.getDepartment() != null && dep.getId().equals(obj.getDepartment().getId())
+                        && obj.getDepartment() != dep) {
+                    changed.add(obj);
+                }
+            }
+            for (Seller obj : changed) {
+                Seller copy = obj.copy();
+                copy.setDepartment(dep);
+                putLocked(copy.freeze());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //descarta a base e o delta: as buscas voltam para o banco ate o proximo rebuild
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            nameDelta.clear();
+            emailDelta.clear();
+            deltaById.clear();
+            removedFromBase.clear();
+            setBase(new ArrayList<>(), new ArrayList<>(), new SellerColumnStore());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer id) {
+        if (id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return keyCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //custo da estrutura por chave: String compacta (cabecalho + bytes), a referencia e os ints de cada array
+    //(linha para os nomes; posicao do nome e dois nos da arvore para os emails)
+    public double getBytesPerEntry() {
+        lock.readLock().lock();
+        try {
+            int keys = nameKeys.length + emailKeys.length;
+            return keys == 0 ? 0.0 : (double) (keyBytes + 8L * nameKeys.length + 16L * emailKeys.length) / keys;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.readLock().lock();
+        try {
+            return "SellerSearchIndex{" +
+                    "entries=" + keyCount() +
+                    ", bytesPerEntry=" + String.format("%.1f", getBytesPerEntry()) +
+                    ", store=" + store +
+                    '}';
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int keyCount() {
+        return nameKeys.length + emailKeys.length + nameDelta.size() + emailDelta.size();
+    }
+
+    private void putLocked(Seller obj) {
+        removeLocked(obj.getId());
+        deltaById.put(obj.getId(), obj);
+        nameDelta.put(deltaKey(normalize(obj.getName()), obj.getId()), obj);
+        emailDelta.put(deltaKey(normalize(obj.getEmail()), obj.getId()), obj);
+    }
+
+    private void mergeIfNeeded() {
+        if (nameDelta.size() + emailDelta.size() > Math.max(1024, (nameKeys.length + emailKeys.length) / 8)) {
+            mergeLocked();
+        }
+    }
+
+    private void removeLocked(Integer id) {
+        removedFromBase.add(id);
+        Seller old = deltaById.remove(id);
+        if (old != null) {
+            nameDelta.remove(deltaKey(normalize(old.getName()), id));
+            emailDelta.remove(deltaKey(normalize(old.getEmail()), id));
+        }
+    }
+
+    //as remocoes e alteracoes do delta vao para o store; linhas alteradas continuam com o mesmo numero
+    private void mergeLocked() {
+        List<Entry> names = new ArrayList<>(nameKeys.length + deltaById.size());
+        List<Entry> emails = new ArrayList<>(emailKeys.length + deltaById.size());
+        SellerColumnStore.Row row = store.cursor();
+        for (int i = 0; i < nameKeys.length; i++) {
+            int id = row.moveTo(nameRows[i]).getId();
+            if (!removedFromBase.contains(id)) {
+                names.add(new Entry(nameKeys[i], nameRows[i], id));
+            }
+        }
+        for (int i = 0; i < emailKeys.length; i++) {
+            int storeRow = nameRows[emailRanks[i]];
+            int id = row.moveTo(storeRow).getId();
+            if (!removedFromBase.contains(id)) {
+                emails.add(new Entry(emailKeys[i], storeRow, id));
+            }
+        }
+        for (Integer id : removedFromBase) {
+            if (!deltaById.containsKey(id)) {
+                store.remove(id);
+            }
+        }
+        for (Seller obj : deltaById.values()) {
+            addEntries(names, emails, obj, store.put(obj));
+        }
+        nameDelta.clear();
+        emailDelta.clear();
+        deltaById.clear();
+        removedFromBase.clear();
+        setBase(names, emails, store);
+    }
+
+    private void installBase(List<Entry> names, List<Entry> emails, SellerColumnStore newStore) {
+        lock.writeLock().lock();
+        try {
+            //escritas feitas durante a leitura continuam valendo por cima da nova base
+            setBase(names, emails, newStore);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setBase(List<Entry> names, List<Entry> emails, SellerColumnStore newStore) {
+        Entry[] byName = names.toArray(new Entry[0]);
+        Arrays.sort(byName);
+        String[] newNameKeys = new String[byName.length];
+        int[] newNameRows = new int[byName.length];
+        int[] rankOfRow = new int[newStore.size()];
+        long bytes = 0;
+        for (int i = 0; i < byName.length; i++) {
+            newNameKeys[i] = byName[i].key;
+            newNameRows[i] = byName[i].row;
+            rankOfRow[byName[i].row] = i;
+            bytes += 40 + byName[i].key.length();
+        }
+        Entry[] byEmail = emails.toArray(new Entry[0]);
+        Arrays.sort(byEmail);
+        String[] newEmailKeys = new String[byEmail.length];
+        int[] newEmailRanks = new int[byEmail.length];
+        for (int i = 0; i < byEmail.length; i++) {
+            newEmailKeys[i] = byEmail[i].key;
+            newEmailRanks[i] = rankOfRow[byEmail[i].row];
+            bytes += 40 + byEmail[i].key.length();
+        }
+        nameKeys = newNameKeys;
+        nameRows = newNameRows;
+        emailKeys = newEmailKeys;
+        emailRanks = newEmailRanks;
+        minTree = buildMinTree(newEmailRanks);
+        store = newStore;
+        keyBytes = bytes;
+    }
+
+    //arvore de segmentos iterativa: as folhas (n..2n-1) sao as posicoes do array de emails e cada no guarda a
+    //posicao com o menor rank do seu intervalo
+    private static int[] buildMinTree(int[] ranks) {
+        int n = ranks.length;
+        int[] tree = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            tree[n + i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int left = tree[2 * i];
+            int right = tree[2 * i + 1];
+            tree[i] = ranks[left] < ranks[right] ? left : right;
+        }
+        return tree;
+    }
+
+    //posicao com o menor rank em [low, high)
+    private int minIndex(int low, int high) {
+        int n = emailRanks.length;
+        int best = -1;
+        for (low += n, high += n; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) {
+                best = lowerRank(best, minTree[low++]);
+            }
+            if ((high & 1) == 1) {
+                best = lowerRank(best, minTree[--high]);
+            }
+        }
+        return best;
+    }
+
+    private int lowerRank(int a, int b) {
+        return a < 0 || emailRanks[b] < emailRanks[a] ? b : a;
+    }
+
+    private static int lowerBound(String[] keys, String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void addEntries(List<Entry> names, List<Entry> emails, Seller obj, int row) {
+        names.add(new Entry(normalize(obj.getName()), row, obj.getId()));
+        emails.add(new Entry(normalize(obj.getEmail()), row, obj.getId()));
+    }
+
+    private static String normalize(String str) {
+        return str == null ? "" : str.toLowerCase(Locale.ROOT);
+    }
+
+    //o Id vai em dois chars para as chaves iguais ficarem na ordem numerica do Id, como na base
+    private static String deltaKey(String key, Integer id) {
+        return key + '\u0000' + (char) (id >>> 16) + (char) (id & 0xFFFF);
+    }
+
+    private static class Entry implements Comparable<Entry> {
+        private final String key;
+        private final int row;
+        private final int id;
+
+        Entry(String key, int row, int id) {
+            this.key = key;
+            this.row = row;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int cmp = key.compareTo(other.key);
+            return cmp != 0 ? cmp : Integer.compare(id, other.id);
+        }
+    }
+
+    //emails de um intervalo do array de emails em ordem de rank (posicao no array de nomes): cada intervalo no
+    //heap e representado pela sua posicao de menor rank, e tirar uma posicao divide o intervalo em dois
+    private class EmailMatches {
+        private final PriorityQueue<int[]> ranges =
+                new PriorityQueue<>(Comparator.comparingInt((int[] range) -> emailRanks[range[2]]));
+
+        EmailMatches(int low, int high) {
+            push(low, high);
+        }
+
+        //proximo rank, -1 quando acabou
+        int next() {
+            int[] range = ranges.poll();
+            if (range == null) {
+                return -1;
+            }
+            push(range[0], range[2]);
+            push(range[2] + 1, range[1]);
+            return emailRanks[range[2]];
+        }
+
+        private void push(int low, int high) {
+            if (low < high) {
+                ranges.add(new int[]{low, high, minIndex(low, high)});
+            }
+        }
+    }
+
+    //candidato da busca: linha da base ou vendedor do delta
+    private static class Match {
+        private final String key;
+        private final int id;
+        private final int row;
+        private final Seller seller;
+
+        Match(String key, int id, int row, Seller seller) {
+            this.key = key;
+            this.id = id;
+            this.row = row;
+            this.seller = seller;
+        }
+    }
+}
@@ -2,29 +2,132 @@ package model.services;
 
 import model.dao.DaoFactory;
 import model.dao.SellerDao;
+import model.entities.Department;
 import model.entities.Seller;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class SellerService {
 
     private SellerDao dao = DaoFactory.createSellerDao();
 
+    //indice compartilhado pelas telas, montado uma vez em segundo plano
+    private static final SellerSearchIndex searchIndex = new SellerSearchIndex();
+
+    private static CompletableFuture<Void> indexBuild;
+
     public List<Seller> findAll(){
 
         return dao.findall();
     }
 
+    public List<Seller> findPage(String afterName, Integer afterId, int limit){
+
+        return dao.findPage(afterName, afterId, limit);
+    }
+
+    //sem prefixo volta para a lista completa
+    public List<Seller> findPage(String prefix, String afterName, Integer afterId, int limit){
+        if(prefix == null || prefix.isEmpty()){
+            return dao.findPage(afterName, afterId, limit);
+        }
+        return dao.findPageByPrefix(prefix, afterName, afterId, limit);
+    }
+
+    public List<Seller> findByIds(Collection<Integer> ids){
+        return dao.findByIds(ids);
+    }
+
+    public void forEach(Consumer<Seller> action){
+        dao.forEach(action);
+    }
+
+    public void forEachByDepartment(Department department, Consumer<Seller> action){
+        dao.forEachByDepartment(department, action);
+    }
+
+    public SellerSearchIndex getSearchIndex(){
+        return searchIndex;
+    }
+
+    //le todos os vendedores em streaming para montar o indice, so na primeira chamada
+    public CompletableFuture<Void> buildSearchIndexAsync(){
+        synchronized (SellerService.class){
+            if(indexBuild == null || indexBuild.isCompletedExceptionally()){
+                indexBuild = ServiceExecutor.run(() -> searchIndex.rebuild(dao::forEach));
+            }
+            return indexBuild;
+        }
+    }
+
+    //busca no indice quando ele ja esta pronto, senao retorna null para consultar o banco
+    public List<Seller> searchIndexed(String prefix, int limit){
+        if(!searchIndex.isReady()){
+            return null;
+        }
+        return searchIndex.search(prefix, limit);
+    }
+
     public void saveOrUpdate(Seller obj){
         if(obj.getId() == null){
             dao.insert(obj);
         }else {
             dao.update(obj);
         }
+        //so chega aqui se a gravacao deu certo (o dao lanca DbException); gravado, passa a ser compartilhado
+        //pela tabela e pelo indice
+        obj.freeze();
+        searchIndex.put(obj);
+        DepartmentStatsService.invalidate();
+    }
+
+    public void saveOrUpdate(Collection<Seller> list){
+        List<Seller> inserts = new ArrayList<>();
+        List<Seller> updates = new ArrayList<>();
+        for(Seller obj : list){
+            if(obj.getId() == null){
+                inserts.add(obj);
+            }else {
+                updates.add(obj);
+            }
+        }
+        dao.insertAll(inserts);
+        dao.updateAll(updates);
+        for(Seller obj : list){
+            obj.freeze();
+        }
+        searchIndex.putAll(list);
+        DepartmentStatsService.invalidate();
     }
 
     public void remove(Seller obj){
         dao.deleteById(obj.getId());
+        searchIndex.remove(obj.getId());
+        DepartmentStatsService.invalidate();
+    }
+
+    public CompletableFuture<List<Seller>> findAllAsync(){
+        return ServiceExecutor.supply(this::findAll);
+    }
+
+    public CompletableFuture<List<Seller>> findPageAsync(String afterName, Integer afterId, int limit){
+        return ServiceExecutor.supply(() -> findPage(afterName, afterId, limit));
+    }
+
+    public CompletableFuture<List<Seller>> findPageAsync(String prefix, String afterName, Integer afterId, int limit){
+        return ServiceExecutor.supply(() -> findPage(prefix, afterName, afterId, limit));
+    }
+
+    public CompletableFuture<Void> saveOrUpdateAsync(Seller obj){
+        return ServiceExecutor.run(() -> saveOrUpdate(obj));
+    }
+
+    public CompletableFuture<Void> removeAsync(Seller obj){
+        return ServiceExecutor.run(() -> remove(obj));
     }
 
 
@@ -0,0 +1,233 @@
+package model.services;
+
+import model.entities.Department;
+import model.entities.DepartmentRegistry;
+import model.entities.Seller;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+//copia local e compacta de departamentos e vendedores, lida de uma vez para um buffer na memoria.
+//Cabecalho: magic, versao, data, quantidades, tamanho e CRC32 do conteudo. Arquivo de outra versao,
+//truncado ou com CRC errado e ignorado
+public class SellerSnapshot {
+
+    private static final int MAGIC = 0x534C534E;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 40;
+
+    private static final int HAS_BIRTH_DATE = 1;
+    private static final int HAS_BASE_SALARY = 2;
+    private static final int HAS_DEPARTMENT = 4;
+
+    private final long createdAt;
+    private final List<Department> departments;
+    private final List<Seller> sellers;
+
+    public SellerSnapshot(long createdAt, List<Department> departments, List<Seller> sellers) {
+        this.createdAt = createdAt;
+        this.departments = Collections.unmodifiableList(departments);
+        this.sellers = Collections.unmodifiableList(sellers);
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public List<Department> getDepartments() {
+        return departments;
+    }
+
+    public List<Seller> getSellers() {
+        return sellers;
+    }
+
+    //null se o arquivo nao existe ou nao pode ser usado
+    public static SellerSnapshot read(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            //sem mapear o arquivo: um mapeamento aberto impede o Files.move da proxima gravacao no Windows
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    return null;
+                }
+            }
+            buffer.flip();
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            long createdAt = buffer.getLong();
+            int departmentCount = buffer.getInt();
+            int sellerCount = buffer.getInt();
+            long payloadLength = buffer.getLong();
+            long crc = buffer.getLong();
+            if (payloadLength != size - HEADER_SIZE || departmentCount < 0 || sellerCount < 0) {
+                return null;
+            }
+            CRC32 check = new CRC32();
+            check.update(buffer.duplicate());
+            if (check.getValue() != crc) {
+                return null;
+            }
+            return decode(buffer, createdAt, departmentCount, sellerCount);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    //grava num arquivo temporario e troca de uma vez, quem le nunca ve um arquivo pela metade
+    public void write(Path file) throws IOException {
+        ByteBuffer payload = encode();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(createdAt)
+                .putInt(departments.size()).putInt(sellers.size())
+                .putLong(payload.remaining()).putLong(crc.getValue());
+        header.flip();
+
+        Path dir = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                while (payload.hasRemaining()) {
+                    channel.write(payload);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private ByteBuffer encode() {
+        List<byte[]> strings = new ArrayList<>();
+        int size = 0;
+        for (Department dep : departments) {
+            size += 4 + addString(strings, dep.getName());
+        }
+        for (Seller obj : sellers) {
+            size += 4 + 1 + addString(strings, obj.getName()) + addString(strings, obj.getEmail());
+            size += obj.hasBirthDate() ? 8 : 0;
+            size += obj.getBaseSalary() != null ? 8 : 0;
+            size += obj.getDepartment() != null ? 4 : 0;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        int next = 0;
+        for (Department dep : departments) {
+            buffer.putInt(dep.getId());
+            putString(buffer, strings.get(next++));
+        }
+        for (Seller obj : sellers) {
+            int flags = (obj.hasBirthDate() ? HAS_BIRTH_DATE : 0)
+                    | (obj.getBaseSalary() != null ? HAS_BASE_SALARY : 0)
+                    | (obj.getDepartment() != null ? HAS_DEPARTMENT : 0);
+            buffer.putInt(obj.getId());
+            buffer.put((byte) flags);
+            putString(buffer, strings.get(next++));
+            putString(buffer, strings.get(next++));
+            if (obj.hasBirthDate()) {
+                buffer.putLong(obj.getBirthDateMillis());
+            }
+            if (obj.getBaseSalary() != null) {
+                buffer.putDouble(obj.getBaseSalary());
+            }
+            if (obj.getDepartment() != null) {
+                buffer.putInt(obj.getDepartment().getId());
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static SellerSnapshot decode(ByteBuffer buffer, long createdAt, int departmentCount, int sellerCount) {
+        //limita a alocacao inicial: as quantidades vem do arquivo
+        List<Department> departments = new ArrayList<>(Math.min(departmentCount, 1024));
+        Map<Integer, Department> departmentsById = new HashMap<>();
+        for (int i = 0; i < departmentCount; i++) {
+            int depId = buffer.getInt();
+            String depName = getString(buffer);
+            //o nome do arquivo pode estar velho: usa a instancia registrada se ja existe, sem substituir ela
+            Department dep = DepartmentRegistry.internIfAbsent(depId, depName);
+            departments.add(dep);
+            departmentsById.put(dep.getId(), dep);
+        }
+        List<Seller> sellers = new ArrayList<>(Math.min(sellerCount, 16384));
+        for (int i = 0; i < sellerCount; i++) {
+            int id = buffer.getInt();
+            int flags = buffer.get();
+            String name = getString(buffer);
+            String email = getString(buffer);
+            Date birthDate = (flags & HAS_BIRTH_DATE) != 0 ? new Date(buffer.getLong()) : null;
+            Double baseSalary = (flags & HAS_BASE_SALARY) != 0 ? buffer.getDouble() : null;
+            Department dep = null;
+            if ((flags & HAS_DEPARTMENT) != 0) {
+                int depId = buffer.getInt();
+                dep = departmentsById.get(depId);
+                if (dep == null) {
+                    dep = DepartmentRegistry.internIfAbsent(depId, null);
+                }
+            }
+            sellers.add(new Seller(id, name, email, birthDate, baseSalary, dep).freeze());
+        }
+        if (buffer.hasRemaining()) {
+            throw new IllegalArgumentException("Trailing bytes in snapshot");
+        }
+        return new SellerSnapshot(createdAt, departments, sellers);
+    }
+
+    private static int addString(List<byte[]> strings, String str) {
+        byte[] bytes = str == null ? null : str.getBytes(StandardCharsets.UTF_8);
+        strings.add(bytes);
+        return 4 + (bytes == null ? 0 : bytes.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid string length in snapshot");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,44 @@
+package model.services;
+
+import model.entities.Seller;
+import model.exceptions.ValidationException;
+
+//regras de validacao de um vendedor, usadas pelo formulario e pela importacao
+public class SellerValidator {
+
+    //tamanhos das colunas seller.Name e seller.Email (sql/000_schema.sql)
+    public static final int MAX_NAME_LENGTH = 60;
+    public static final int MAX_EMAIL_LENGTH = 100;
+
+    public static void validate(Seller obj) {
+        ValidationException exception = new ValidationException("Validation Error");
+
+        if (isBlank(obj.getName())) {
+            exception.addError("name", "Field can't be emppty");
+        } else if (obj.getName().length() > MAX_NAME_LENGTH) {
+            exception.addError("name", "Field can't exceed " + MAX_NAME_LENGTH + " characters");
+        }
+
+        if (isBlank(obj.getEmail())) {
+            exception.addError("email", "Field can't be emppty");
+        } else if (obj.getEmail().length() > MAX_EMAIL_LENGTH) {
+            exception.addError("email", "Field can't exceed " + MAX_EMAIL_LENGTH + " characters");
+        }
+
+        if (obj.getBirthDate() == null) {
+            exception.addError("birthDate", "Field can't be emppty");
+        }
+
+        if (obj.getBaseSalary() == null) {
+            exception.addError("baseSalary", "Field can't be emppty");
+        }
+
+        if (exception.getErrors().size() > 0) {
+            throw exception;
+        }
+    }
+
+    private static boolean isBlank(String str) {
+        return str == null || str.trim().equals("");
+    }
+}
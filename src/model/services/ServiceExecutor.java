@@ -0,0 +1,32 @@
+package model.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+//executa as chamadas ao banco fora da thread da interface; threads de plataforma (daemon) para rodar no Java 17,
+//quantas ficam ocupadas ao mesmo tempo e limitado pelo pool de conexoes
+public class ServiceExecutor {
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "service-" + threadCount.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    public static <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    public static CompletableFuture<Void> run(Runnable task) {
+        return CompletableFuture.runAsync(task, executor);
+    }
+
+    public static void shutdown() {
+        executor.shutdown();
+    }
+}
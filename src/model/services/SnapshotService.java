@@ -0,0 +1,116 @@
+package model.services;
+
+import db.DB;
+import db.DbException;
+import model.entities.Department;
+import model.entities.Seller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+
+//guarda departamentos e a primeira parte da lista de vendedores num arquivo local: na partida a lista aparece com
+//esses dados enquanto o banco responde, e depois e substituida pelo resultado da consulta
+public class SnapshotService {
+
+    private static final Logger LOG = Logger.getLogger(SnapshotService.class.getName());
+
+    private static volatile SellerSnapshot loaded;
+
+    private final SellerService sellerService = new SellerService();
+    private final DepartmentService departmentService = new DepartmentService();
+
+    private ScheduledExecutorService scheduler;
+
+    //null se nao ha snapshot utilizavel, e a lista carrega do banco como sempre
+    public SellerSnapshot load() {
+        Path file = snapshotFile();
+        if (file == null) {
+            return null;
+        }
+        try {
+            SellerSnapshot snapshot = SellerSnapshot.read(file);
+            if (snapshot == null && Files.exists(file)) {
+                LOG.warning("Snapshot ignored, corrupt or from another version: " + file);
+            }
+            loaded = snapshot;
+            return snapshot;
+        } catch (IOException e) {
+            LOG.warning("Snapshot ignored: " + e.getMessage());
+            return null;
+        }
+    }
+
+    //vendedores do snapshot para a primeira exibicao da lista, entregues uma vez so
+    public static List<Seller> takeSellers() {
+        SellerSnapshot snapshot = loaded;
+        loaded = null;
+        return snapshot == null ? null : snapshot.getSellers();
+    }
+
+    public void save() throws IOException {
+        Path file = snapshotFile();
+        if (file == null) {
+            return;
+        }
+        int maxSellers = DB.getIntProperty("snapshot.maxSellers", 200);
+        List<Department> departments = departmentService.findAll();
+        List<Seller> sellers = sellerService.findPage(null, null, maxSellers);
+        new SellerSnapshot(System.currentTimeMillis(), departments, sellers).write(file);
+    }
+
+    public synchronized void start() {
+        long interval = DB.getIntProperty("snapshot.intervalMs", 300000);
+        if (interval <= 0 || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::saveQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    //para a gravacao periodica e grava uma ultima vez. Roda no fechamento da janela, na thread da interface:
+    //espera no maximo snapshot.stopTimeoutMs pelo banco e desiste. Como a gravacao troca o arquivo de uma vez,
+    //desistir no meio deixa o snapshot anterior inteiro
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        long timeout = DB.getIntProperty("snapshot.stopTimeoutMs", 2000);
+        try {
+            ServiceExecutor.run(this::saveQuietly).get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            LOG.warning("Snapshot not saved, database took more than " + timeout + " ms");
+        } catch (ExecutionException e) {
+            LOG.warning("Error saving snapshot: " + e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void saveQuietly() {
+        try {
+            save();
+        } catch (IOException | DbException e) {
+            LOG.warning("Error saving snapshot: " + e.getMessage());
+        }
+    }
+
+    //snapshot.path vazio desliga o snapshot
+    private static Path snapshotFile() {
+        String path = DB.getProperties().getProperty("snapshot.path", "seller-snapshot.bin").trim();
+        return path.isEmpty() ? null : Paths.get(path);
+    }
+}
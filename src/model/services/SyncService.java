@@ -0,0 +1,280 @@
+package model.services;
+
+import db.DB;
+import db.DbException;
+import model.dao.ChangeLogDao;
+import model.dao.DaoFactory;
+import model.dao.impl.CachedDepartmentDao;
+import model.dao.impl.CachedSellerDao;
+import model.entities.ChangeLogEntry;
+import model.entities.Department;
+import model.entities.DepartmentRegistry;
+import model.entities.Seller;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//le o change_log em segundo plano e traz so as linhas alteradas por outros clientes desde a ultima leitura
+public class SyncService {
+
+    private static final Logger LOG = Logger.getLogger(SyncService.class.getName());
+
+    private static final int MAX_CHANGES_PER_POLL = 1000;
+
+    //paginas lidas num poll quando chega um lote grande, o resto fica para o proximo
+    private static final int MAX_BULK_PAGES = 100;
+
+    //Ids faltando acompanhados ao mesmo tempo; acima disso os mais antigos sao dados como perdidos
+    private static final int MAX_TRACKED_GAPS = 500;
+
+    private final ChangeLogDao changeLogDao = DaoFactory.createChangeLogDao();
+    private final CachedSellerDao sellerCache = DaoFactory.getSellerCache();
+    private final CachedDepartmentDao departmentCache = DaoFactory.getDepartmentCache();
+    private final SellerSearchIndex searchIndex = new SellerService().getSearchIndex();
+
+    private ScheduledExecutorService scheduler;
+
+    //maior Id do change_log ja lido
+    private long watermark;
+
+    //o Id vem do auto-incremento na hora do INSERT, mas a linha so aparece no commit: uma transacao longa
+    //pode aparecer depois de Ids maiores. Cada Id que falta abaixo do watermark fica aqui (Id -> prazo) e e
+    //lido de novo a cada poll ate aparecer ou o prazo vencer (transacao desfeita tambem deixa buraco)
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();
+    private long gapTimeoutMillis;
+
+    //o indice foi descartado por um lote grande e e montado de novo quando o lote terminar
+    private boolean indexStale;
+
+    public synchronized void start(Consumer<List<Change>> listener) {
+        long interval = DB.getIntProperty("sync.intervalMs", 2000);
+        if (interval <= 0 || scheduler != null) {
+            return;
+        }
+        gapTimeoutMillis = DB.getIntProperty("sync.gapTimeoutMs", 60000);
+        try {
+            watermark = changeLogDao.findLastId();
+        } catch (DbException e) {
+            LOG.warning("Sync disabled, change_log not available: " + e.getMessage());
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-sync");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                List<Change> changes = poll();
+                if (!changes.isEmpty()) {
+                    listener.accept(changes);
+                }
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Sync poll failed", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    //aplica nos caches as alteracoes desde o watermark e as que preencheram buracos, e retorna o estado atual
+    //de cada entidade alterada
+    public synchronized List<Change> poll() {
+        List<ChangeLogEntry> entries = new ArrayList<>();
+        if (!gaps.isEmpty()) {
+            for (ChangeLogEntry entry : changeLogDao.findByIds(new ArrayList<>(gaps.keySet()))) {
+                gaps.remove(entry.getId());
+                entries.add(entry);
+            }
+        }
+        List<ChangeLogEntry> fresh = changeLogDao.findAfter(watermark, MAX_CHANGES_PER_POLL);
+        trackGaps(fresh);
+        entries.addAll(fresh);
+        if (fresh.size() == MAX_CHANGES_PER_POLL) {
+            return bulkReload(entries);
+        }
+        if (indexStale) {
+            indexStale = false;
+            searchIndex.rebuild(sellerCache::forEach);
+        }
+        if (entries.isEmpty()) {
+            return new ArrayList<>();
+        }
+        DepartmentStatsService.invalidate();
+        //varias alteracoes da mesma linha viram uma so, a leitura abaixo ja traz o estado final
+        Map<String, ChangeLogEntry> latest = new LinkedHashMap<>();
+        Map<String, Boolean> inserted = new LinkedHashMap<>();
+        for (ChangeLogEntry entry : entries) {
+            String key = entry.getEntityType() + ":" + entry.getEntityId();
+            latest.remove(key);
+            latest.put(key, entry);
+            inserted.putIfAbsent(key, entry.isInsert());
+        }
+
+        boolean departmentsChanged = false;
+        for (ChangeLogEntry entry : latest.values()) {
+            if (ChangeLogEntry.DEPARTMENT.equals(entry.getEntityType())) {
+                departmentsChanged = true;
+            }
+        }
+        if (departmentsChanged) {
+            departmentCache.invalidate();
+            //os vendedores guardados levam o nome do departamento
+            sellerCache.invalidateAll();
+        }
+
+        Map<Integer, Seller> sellers = loadSellers(latest.values());
+
+        searchIndex.putAll(sellers.values());
+
+        List<Change> changes = new ArrayList<>();
+        for (Map.Entry<String, ChangeLogEntry> e : latest.entrySet()) {
+            ChangeLogEntry entry = e.getValue();
+            boolean created = inserted.get(e.getKey());
+            if (ChangeLogEntry.SELLER.equals(entry.getEntityType())) {
+                Seller obj = sellers.get(entry.getEntityId());
+                if (obj == null) {
+                    searchIndex.remove(entry.getEntityId());
+                }
+                changes.add(new Change(Seller.class, entry.getEntityId(), obj == null, created, obj));
+            } else if (ChangeLogEntry.DEPARTMENT.equals(entry.getEntityType())) {
+                if (entry.isDelete()) {
+                    DepartmentRegistry.remove(entry.getEntityId());
+                }
+                Department dep = entry.isDelete() ? null : departmentCache.findById(entry.getEntityId());
+                if (dep != null) {
+                    searchIndex.replaceDepartment(DepartmentRegistry.intern(dep));
+                }
+                changes.add(new Change(Department.class, entry.getEntityId(), dep == null, created, dep));
+            }
+        }
+        return changes;
+    }
+
+    //importacao ou lote grande em outro cliente: le o resto do change_log so para andar o watermark, sem trazer
+    //linha por linha, e manda as telas recarregarem uma vez. O indice de busca fica descartado (as buscas vao
+    //ao banco) ate o lote terminar
+    private List<Change> bulkReload(List<ChangeLogEntry> entries) {
+        boolean departmentsChanged = containsDepartment(entries);
+        List<ChangeLogEntry> page = entries;
+        for (int pages = 1; page.size() == MAX_CHANGES_PER_POLL && pages < MAX_BULK_PAGES; pages++) {
+            page = changeLogDao.findAfter(watermark, MAX_CHANGES_PER_POLL);
+            trackGaps(page);
+            departmentsChanged |= containsDepartment(page);
+        }
+        DepartmentStatsService.invalidate();
+        sellerCache.invalidateAll();
+        if (searchIndex.isReady()) {
+            searchIndex.invalidate();
+            indexStale = true;
+        }
+        //Change sem Id e sem entidade: quem recebe recarrega a lista
+        List<Change> changes = new ArrayList<>();
+        changes.add(new Change(Seller.class, null, false, false, null));
+        if (departmentsChanged) {
+            departmentCache.invalidate();
+            changes.add(new Change(Department.class, null, false, false, null));
+        }
+        return changes;
+    }
+
+    private static boolean containsDepartment(List<ChangeLogEntry> entries) {
+        for (ChangeLogEntry entry : entries) {
+            if (ChangeLogEntry.DEPARTMENT.equals(entry.getEntityType())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //guarda os Ids pulados entre o watermark e cada linha lida, e descarta os que passaram do prazo
+    private void trackGaps(List<ChangeLogEntry> fresh) {
+        long now = System.currentTimeMillis();
+        gaps.values().removeIf(deadline -> deadline < now);
+        for (ChangeLogEntry entry : fresh) {
+            long from = Math.max(watermark + 1, entry.getId() - MAX_TRACKED_GAPS);
+            for (long id = from; id < entry.getId(); id++) {
+                gaps.put(id, now + gapTimeoutMillis);
+            }
+            watermark = entry.getId();
+        }
+        while (gaps.size() > MAX_TRACKED_GAPS) {
+            gaps.pollFirstEntry();
+        }
+    }
+
+    //estado atual dos vendedores alterados numa consulta so; quem nao voltou foi removido
+    private Map<Integer, Seller> loadSellers(Collection<ChangeLogEntry> entries) {
+        List<Integer> ids = new ArrayList<>();
+        for (ChangeLogEntry entry : entries) {
+            if (ChangeLogEntry.SELLER.equals(entry.getEntityType())) {
+                sellerCache.invalidate(entry.getEntityId());
+                if (!entry.isDelete()) {
+                    ids.add(entry.getEntityId());
+                }
+            }
+        }
+        Map<Integer, Seller> sellers = new HashMap<>();
+        for (Seller obj : sellerCache.findByIds(ids)) {
+            sellers.put(obj.getId(), obj);
+        }
+        return sellers;
+    }
+
+    public synchronized long getWatermark() {
+        return watermark;
+    }
+
+    //estado atual de uma entidade alterada; entity e null quando ela foi removida
+    public static class Change {
+        private final Class<?> entityType;
+        private final Integer id;
+        private final boolean deleted;
+        private final boolean created;
+        private final Object entity;
+
+        Change(Class<?> entityType, Integer id, boolean deleted, boolean created, Object entity) {
+            this.entityType = entityType;
+            this.id = id;
+            this.deleted = deleted;
+            this.created = created;
+            this.entity = entity;
+        }
+
+        public Class<?> getEntityType() {
+            return entityType;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        public boolean isDeleted() {
+            return deleted;
+        }
+
+        public boolean isCreated() {
+            return created;
+        }
+
+        public Object getEntity() {
+            return entity;
+        }
+    }
+}
@@ -2,6 +2,7 @@ module Workshop {
     requires javafx.fxml;
     requires javafx.controls;
     requires java.sql;
+    requires java.logging;
 
     opens gui ;
     opens application;